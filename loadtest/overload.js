@@ -0,0 +1,60 @@
+// k6 overload test: offers a constant request rate above the capacity of the service and
+// checks that the requests it accepts stay fast.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e RATE=9000 -e CLIENTS=50 loadtest/overload.js
+//
+// Find the capacity first with phone-number-service.js (the rate at which errors or dropped
+// iterations appear), then set RATE to 2 to 3 times that. Every virtual user sends the
+// X-Client-Id of one of CLIENTS clients, so per-client rate limits apply as in production.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '9000');
+const CLIENTS = parseInt(__ENV.CLIENTS || '50');
+const DURATION = __ENV.DURATION || '2m';
+const P99_MS = parseInt(__ENV.P99_MS || '500');
+
+const CUSTOMERS = ['telco01', 'telco02', 'telco03', 'telco05', 'telco07', 'telco10'];
+
+const rejected = new Rate('rejected');
+
+export const options = {
+    scenarios: {
+        overload: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 500,
+            maxVUs: 5000,
+        },
+    },
+    // 429 and 503 are the expected answers to excess load; only 200s count as accepted requests
+    thresholds: {
+        'http_req_duration{status:200}': [`p(99)<${P99_MS}`],
+        'checks': ['rate>0.99'],
+    },
+    summaryTrendStats: ['p(50)', 'p(99)', 'max'],
+};
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+export default function () {
+    const params = {
+        headers: { 'X-Client-Id': `client-${__VU % CLIENTS}` },
+        tags: { endpoint: Math.random() < 0.8 ? 'byCustomer' : 'page' },
+        responseCallback: http.expectedStatuses(200, 429, 503),
+    };
+    const response = params.tags.endpoint === 'byCustomer'
+        ? http.get(`${BASE_URL}/v1/customers/${pick(CUSTOMERS)}/phone-numbers`, params)
+        : http.get(`${BASE_URL}/v1/phoneNumbers?limit=100`, params);
+    rejected.add(response.status === 429 || response.status === 503);
+    check(response, {
+        'accepted or rejected with Retry-After': (r) => r.status === 200
+            || ((r.status === 429 || r.status === 503) && r.headers['Retry-After'] !== undefined),
+    });
+}
@@ -0,0 +1,50 @@
+// k6 load test for the phone number service.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e MAX_RPS=4000 loadtest/phone-number-service.js
+//
+// The arrival rate ramps up to MAX_RPS; the rate at which failed requests or
+// dropped iterations start to appear is the maximum sustainable RPS.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MAX_RPS = parseInt(__ENV.MAX_RPS || '4000');
+const DURATION = __ENV.DURATION || '3m';
+
+const CUSTOMERS = ['telco01', 'telco02', 'telco03', 'telco05', 'telco07', 'telco10'];
+const PHONE_NUMBERS = ['+61412345678', '+61419876543', '+61433334444', '+61444445555', '+61459998888'];
+
+export const options = {
+    scenarios: {
+        mixed: {
+            executor: 'ramping-arrival-rate',
+            startRate: 50,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 4000,
+            stages: [{ target: MAX_RPS, duration: DURATION }],
+        },
+    },
+    summaryTrendStats: ['p(50)', 'p(99)', 'max'],
+};
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+export default function () {
+    const roll = Math.random();
+    let response;
+    if (roll < 0.8) {
+        response = http.get(`${BASE_URL}/v1/customers/${pick(CUSTOMERS)}/phone-numbers`,
+            { tags: { endpoint: 'byCustomer' } });
+    } else if (roll < 0.95) {
+        response = http.get(`${BASE_URL}/v1/phoneNumbers?limit=100`,
+            { tags: { endpoint: 'page' } });
+    } else {
+        // activations of seeded numbers quickly turn into 400 already-activated, which is expected
+        response = http.patch(`${BASE_URL}/v1/phone-numbers/${encodeURIComponent(pick(PHONE_NUMBERS))}/activate`,
+            null, { tags: { endpoint: 'activate' } });
+    }
+    check(response, { 'no server error': (r) => r.status > 0 && r.status < 500 });
+}
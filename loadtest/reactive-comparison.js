@@ -0,0 +1,48 @@
+// k6 load test comparing the servlet and the reactive service at high concurrency.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=2000 loadtest/reactive-comparison.js
+//   k6 run -e BASE_URL=http://localhost:8081 -e VUS=2000 loadtest/reactive-comparison.js
+//
+// Every virtual user sends requests back to back, so VUS is the number of requests in flight.
+// Both services start from the same seed data and expose the same three endpoints.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '2000');
+const DURATION = __ENV.DURATION || '2m';
+
+const CUSTOMERS = ['telco01', 'telco02', 'telco03', 'telco05', 'telco07', 'telco10'];
+const PHONE_NUMBERS = ['+61412345678', '+61419876543', '+61433334444', '+61444445555', '+61459998888'];
+
+export const options = {
+    scenarios: {
+        concurrent: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['p(50)', 'p(99)', 'max'],
+};
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+export default function () {
+    const roll = Math.random();
+    let response;
+    if (roll < 0.7) {
+        response = http.get(`${BASE_URL}/v1/customers/${pick(CUSTOMERS)}/phone-numbers`,
+            { tags: { endpoint: 'byCustomer' } });
+    } else if (roll < 0.9) {
+        response = http.get(`${BASE_URL}/v1/phoneNumbers`,
+            { headers: { Accept: 'application/x-ndjson' }, tags: { endpoint: 'all' } });
+    } else {
+        // activations of seeded numbers quickly turn into 400 already-activated, which is expected
+        response = http.patch(`${BASE_URL}/v1/phone-numbers/${encodeURIComponent(pick(PHONE_NUMBERS))}/activate`,
+            null, { tags: { endpoint: 'activate' } });
+    }
+    check(response, { 'no server error': (r) => r.status > 0 && r.status < 500 });
+}
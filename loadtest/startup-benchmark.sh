@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Measures the time from launching the JVM to the first successful request, for each startup mode.
+# Build the jar and the CDS archive first:
+#   ./gradlew cdsArchive
+#   loadtest/startup-benchmark.sh [runs]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+URL="http://localhost:${PORT}/v1/phoneNumbers?limit=1"
+JAR_NAME=$(basename "$(ls build/libs/*.jar | grep -v -- '-plain.jar$' | head -n 1)")
+BOOT_JAR="build/libs/${JAR_NAME}"
+EXTRACTED_JAR="build/cds/${JAR_NAME}"
+CDS_ARCHIVE="build/cds/application.jsa"
+# The AOT initializers are built for these profiles (aotProfiles in build.gradle), so the modes
+# using them run with the same profiles.
+AOT_PROFILES="prod,lazy"
+
+# measure <name> <jar> [jvm options...]
+measure() {
+  local name=$1 jar=$2
+  shift 2
+  local total=0
+  for _ in $(seq "$RUNS"); do
+    local start pid elapsed
+    start=$(date +%s%N)
+    java "$@" -jar "$jar" --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    until curl -fs -o /dev/null "$URL"; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "${name}: the application exited before serving a request" >&2
+        return 1
+      fi
+      sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    total=$(( total + elapsed ))
+  done
+  printf '%-14s %6d ms\n' "$name" $(( total / RUNS ))
+}
+
+echo "Mean time to first successful request over ${RUNS} runs"
+measure "boot jar" "$BOOT_JAR"
+measure "extracted" "$EXTRACTED_JAR"
+measure "prod+lazy" "$EXTRACTED_JAR" -Dspring.profiles.active="$AOT_PROFILES"
+measure "cds+aot" "$EXTRACTED_JAR" -XX:SharedArchiveFile="$CDS_ARCHIVE" -Dspring.aot.enabled=true \
+  -Dspring.profiles.active="$AOT_PROFILES"
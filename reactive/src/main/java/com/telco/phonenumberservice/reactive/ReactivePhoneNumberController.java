@@ -0,0 +1,92 @@
+package com.telco.phonenumberservice.reactive;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.telco.phonenumberservice.service.PhoneNumberResponseDto;
+import com.telco.phonenumberservice.validation.ValidPhoneNumber;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The endpoints of PhoneNumberController on WebFlux. Request validation and response bodies are the same.
+ *
+ * The all-numbers endpoint returns the database Flux itself: phone numbers are written as they are read,
+ * and reading slows down when the client does. Strings in a Flux are written as raw text by WebFlux,
+ * so each number is encoded as a JSON string here.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+public class ReactivePhoneNumberController {
+
+    private final ReactivePhoneNumberService phoneNumberService;
+
+    @GetMapping(value = "/v{version}/phoneNumbers",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Flux<String>> getAllPhoneNumbers(
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Fetching all phone numbers");
+        Flux<String> phoneNumbers = phoneNumberService.streamAllPhoneNumbers();
+        if (acceptsNdjson(httpHeaders)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(phoneNumbers.map(phoneNumber -> toJsonString(phoneNumber) + "\n"));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.concat(
+                        Mono.just("["),
+                        phoneNumbers.index().map(indexed -> (indexed.getT1() == 0 ? "" : ",") + toJsonString(indexed.getT2())),
+                        Mono.just("]")));
+    }
+
+    @GetMapping(value = "/v{version}/customers/{customerId}/phone-numbers", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<String>> getAllPhoneNumbersByCustomerId(
+            @PathVariable(name = "customerId") final
+            @Size(max = 8, message = "customerId length must be at most 8 characters")
+            @Pattern(regexp = "^[a-zA-Z0-9]*$", message = "customerId must be alphanumeric only")
+            String customerId,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Fetching phone numbers by customerId");
+        return phoneNumberService.getAllPhoneNumbersByCustomer(customerId);
+    }
+
+    @PatchMapping(value = "/v{version}/phone-numbers/{phoneNumber}/activate", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<PhoneNumberResponseDto> activatePhoneNumber(
+            @PathVariable(name = "phoneNumber")
+            @Size(max = 20, message = "Phone number must be at most 20 characters")
+            @ValidPhoneNumber
+            final String phoneNumber,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Activating phone number");
+        return phoneNumberService.activatePhoneNumber(phoneNumber);
+    }
+
+    private static boolean acceptsNdjson(HttpHeaders httpHeaders) {
+        for (MediaType mediaType : httpHeaders.getAccept()) {
+            if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+            if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static String toJsonString(String value) {
+        return '"' + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + '"';
+    }
+}
@@ -0,0 +1,74 @@
+package com.telco.phonenumberservice.reactive;
+
+import com.telco.phonenumberservice.exception.AlreadyActiveException;
+import com.telco.phonenumberservice.exception.ApiError;
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import com.telco.phonenumberservice.exception.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps errors to the same statuses and ApiError bodies as PhoneNumberServiceExceptionHandler, logged
+ * at the same levels: not found and bad request at debug, with the responses for the fixed messages
+ * built once and shared, and only unexpected exceptions at error, with their stack trace.
+ */
+@Slf4j
+@RestControllerAdvice(annotations = RestController.class)
+public class ReactivePhoneNumberExceptionHandler {
+
+    private static final Map<String, ResponseEntity<ApiError>> NOT_FOUND_RESPONSES = preallocate(HttpStatus.NOT_FOUND,
+            NotFoundException.PHONE_NUMBER_NOT_FOUND, NotFoundException.NO_PHONE_NUMBERS);
+
+    private static final Map<String, ResponseEntity<ApiError>> BAD_REQUEST_RESPONSES = preallocate(HttpStatus.BAD_REQUEST,
+            IllegalStateException.INVALID_PHONE_NUMBER, AlreadyActiveException.ALREADY_ACTIVE);
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<ApiError> handleNotFoundException(Exception exception) {
+        log.debug("Resource not found: {}", exception.getMessage());
+        return response(HttpStatus.NOT_FOUND, exception.getMessage(), NOT_FOUND_RESPONSES);
+    }
+
+    @ExceptionHandler({IllegalStateException.class, HandlerMethodValidationException.class, ServerWebInputException.class})
+    public ResponseEntity<ApiError> handleIllegalStateException(Exception exception) {
+        log.debug("Bad Request: {}", exception.getMessage());
+        return response(HttpStatus.BAD_REQUEST, exception.getMessage(), BAD_REQUEST_RESPONSES);
+    }
+
+    @ExceptionHandler({Exception.class})
+    public ResponseEntity<ApiError> handleGenericException(Exception exception) {
+        log.error("Exception: {}", exception.getMessage(), exception);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong");
+    }
+
+    private static ResponseEntity<ApiError> response(HttpStatus httpStatus, String errorMessage,
+                                                     Map<String, ResponseEntity<ApiError>> preallocated) {
+        ResponseEntity<ApiError> response = errorMessage == null ? null : preallocated.get(errorMessage);
+        return response != null ? response : error(httpStatus, errorMessage);
+    }
+
+    private static Map<String, ResponseEntity<ApiError>> preallocate(HttpStatus httpStatus, String... errorMessages) {
+        Map<String, ResponseEntity<ApiError>> responses = new HashMap<>();
+        for (String errorMessage : errorMessages) {
+            responses.put(errorMessage, error(httpStatus, errorMessage));
+        }
+        return Map.copyOf(responses);
+    }
+
+    private static ResponseEntity<ApiError> error(HttpStatus httpStatus, String errorMessage) {
+        ApiError apiError = ApiError.builder()
+                .errorId(httpStatus.getReasonPhrase())
+                .errorMessage(errorMessage)
+                .httpStatus(httpStatus)
+                .build();
+        return new ResponseEntity<>(apiError, apiError.getHttpStatus());
+    }
+}
@@ -0,0 +1,62 @@
+package com.telco.phonenumberservice.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * The queries of the servlet service's repositories, issued through R2DBC and projected to numbers.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactivePhoneNumberRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Streams every phone number in number order. Rows are read as the subscriber requests them.
+     */
+    public Flux<String> findAllNumbers() {
+        return databaseClient.sql("SELECT number FROM phone_number ORDER BY number")
+                .map(row -> row.get("number", String.class))
+                .all();
+    }
+
+    /**
+     * Reads the numbers of a customer in one round trip.
+     * No rows means the customer does not exist; a single empty row means the
+     * customer exists but has no phone numbers.
+     */
+    public Flux<Optional<String>> findNumbersByCustomerId(String customerId) {
+        return databaseClient.sql("SELECT p.number FROM customer c "
+                        + "LEFT JOIN phone_number p ON p.customer_id = c.customer_id "
+                        + "WHERE c.customer_id = :customerId ORDER BY p.number")
+                .bind("customerId", customerId)
+                .map(row -> Optional.ofNullable(row.get("number", String.class)))
+                .all();
+    }
+
+    /**
+     * Activates the number only if it is currently inactive, in a single statement.
+     *
+     * @return 1 if the number was activated, 0 if it does not exist or is already active
+     */
+    public Mono<Long> activateByNumber(String number) {
+        return databaseClient.sql("UPDATE phone_number SET is_active = TRUE WHERE number = :number AND is_active = FALSE")
+                .bind("number", number)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Boolean> existsByNumber(String number) {
+        return databaseClient.sql("SELECT 1 FROM phone_number WHERE number = :number")
+                .bind("number", number)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+}
@@ -0,0 +1,79 @@
+package com.telco.phonenumberservice.reactive;
+
+import com.telco.phonenumberservice.exception.AlreadyActiveException;
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.service.PhoneNumberResponseDto;
+import com.telco.phonenumberservice.validation.PhoneNumberNormalizer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of PhoneNumberService, with the same outcomes and error messages.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactivePhoneNumberService {
+
+    private final ReactivePhoneNumberRepository phoneNumberRepository;
+
+    /**
+     * Streams every phone number in number order, reading from the database only as fast as the client consumes.
+     */
+    public Flux<String> streamAllPhoneNumbers() {
+        return phoneNumberRepository.findAllNumbers();
+    }
+
+    /**
+     * Retrieves all phone numbers associated with a specific customer.
+     *
+     * @param customerId the unique identifier of the customer
+     * @return the phone numbers of the customer, or a NotFoundException if the customer does not exist or has no phone numbers
+     */
+    public Mono<List<String>> getAllPhoneNumbersByCustomer(String customerId) {
+        return phoneNumberRepository.findNumbersByCustomerId(customerId)
+                .collectList()
+                .flatMap(phoneNumbers -> {
+                    if (phoneNumbers.isEmpty()) {
+                        return Mono.error(new NotFoundException("Customer ID " + customerId + " not found."));
+                    }
+                    if (phoneNumbers.get(0).isEmpty()) {
+                        return Mono.error(new NotFoundException(NotFoundException.NO_PHONE_NUMBERS));
+                    }
+                    return Mono.just(phoneNumbers.stream().map(Optional::orElseThrow).toList());
+                });
+    }
+
+    /**
+     * Activates a given phone number with a single conditional update. If no row was updated,
+     * the phone number is either already active or does not exist.
+     *
+     * @param rawPhoneNumber the phone number to activate, as given by the client
+     * @return the canonical phone number and its active status, or a NotFoundException,
+     * AlreadyActiveException or IllegalStateException
+     */
+    public Mono<PhoneNumberResponseDto> activatePhoneNumber(String rawPhoneNumber) {
+        String phoneNumber = PhoneNumberNormalizer.normalize(rawPhoneNumber);
+        if (phoneNumber == null) {
+            return Mono.error(new IllegalStateException(IllegalStateException.INVALID_PHONE_NUMBER));
+        }
+        return phoneNumberRepository.activateByNumber(phoneNumber)
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        return Mono.just(PhoneNumberResponseDto.builder()
+                                .phoneNumber(phoneNumber)
+                                .isActive(true)
+                                .build());
+                    }
+                    return phoneNumberRepository.existsByNumber(phoneNumber)
+                            .flatMap(exists -> Mono.<PhoneNumberResponseDto>error(exists
+                                    ? new AlreadyActiveException(AlreadyActiveException.ALREADY_ACTIVE)
+                                    : new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND)));
+                });
+    }
+}
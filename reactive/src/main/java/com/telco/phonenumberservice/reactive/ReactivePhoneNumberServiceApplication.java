@@ -0,0 +1,13 @@
+package com.telco.phonenumberservice.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactivePhoneNumberServiceApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactivePhoneNumberServiceApplication.class, args);
+	}
+
+}
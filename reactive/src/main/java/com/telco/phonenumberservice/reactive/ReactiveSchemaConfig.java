@@ -0,0 +1,52 @@
+package com.telco.phonenumberservice.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates the schema and seed data from the servlet service's Flyway migrations, as Flyway itself needs JDBC.
+ *
+ * Every versioned migration on the classpath runs once at startup, schema and data alike, in Flyway's
+ * order: by version, compared numerically part by part, so V10 runs after V9 and V1.1 after V1.
+ */
+@Configuration
+public class ReactiveSchemaConfig {
+
+    static final String MIGRATIONS = "classpath:db/migration/V*__*.sql";
+
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+(?:[._]\\d+)*)__.+\\.sql");
+
+    @Bean
+    public ConnectionFactoryInitializer schemaInitializer(ConnectionFactory connectionFactory) throws IOException {
+        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(
+                inVersionOrder(new PathMatchingResourcePatternResolver().getResources(MIGRATIONS))));
+        return initializer;
+    }
+
+    static Resource[] inVersionOrder(Resource[] migrations) {
+        Resource[] sorted = migrations.clone();
+        Arrays.sort(sorted, Comparator.comparing(ReactiveSchemaConfig::version, Arrays::compare));
+        return sorted;
+    }
+
+    private static long[] version(Resource migration) {
+        Matcher matcher = MIGRATION_NAME.matcher(String.valueOf(migration.getFilename()));
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Not a versioned migration: " + migration.getFilename());
+        }
+        return Arrays.stream(matcher.group(1).split("[._]")).mapToLong(Long::parseLong).toArray();
+    }
+}
@@ -0,0 +1,136 @@
+package com.telco.phonenumberservice.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+public class ReactivePhoneNumberControllerTest {
+
+    private static final String GET_ALL_PHONE_NUMBERS_PATH = "/v{version}/phoneNumbers";
+    private static final String GET_ALL_PHONE_NUMBERS_BY_CUSTOMER_PATH = "/v{version}/customers/{customerId}/phone-numbers";
+    private static final String ACTIVATE_PHONE_NUMBER_PATH = "/v{version}/phone-numbers/{phoneNumber}/activate";
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    /**
+     * Test for the GET /v1/phoneNumbers endpoint.
+     *
+     * This test verifies that the streamed response is a JSON array of every phone number.
+     */
+    @Test
+    void getAllPhoneNumbers_validRequest_returnJsonArray() {
+        webTestClient.get().uri(GET_ALL_PHONE_NUMBERS_PATH, 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$").isArray()
+                .jsonPath("$.length()").value(greaterThan(0))
+                .jsonPath("$[0]").isEqualTo("+61412345678");
+    }
+
+    /**
+     * Test for the GET /v1/phoneNumbers endpoint with an NDJSON Accept header.
+     *
+     * This test verifies that every phone number is written as a JSON string on its own line.
+     */
+    @Test
+    void getAllPhoneNumbers_ndjsonRequest_returnOneNumberPerLine() {
+        String body = webTestClient.get().uri(GET_ALL_PHONE_NUMBERS_PATH, 1)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(body);
+        assertTrue(body.startsWith("\"+61412345678\"\n"));
+    }
+
+    /**
+     * Test for the GET /v1/customers/{customerId}/phone-numbers endpoint.
+     *
+     * This test verifies the phone numbers of an existing customer and the 404 responses
+     * for an unknown customer and a customer without phone numbers.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "telco01, 200",
+            "telco99, 404",
+            "telco04, 404"
+    })
+    void getAllPhoneNumbersByCustomer_shouldReturn_expectedStatus(String customerId, int expectedStatus) {
+        webTestClient.get().uri(GET_ALL_PHONE_NUMBERS_BY_CUSTOMER_PATH, 1, customerId)
+                .exchange()
+                .expectStatus().isEqualTo(expectedStatus);
+    }
+
+    /**
+     * Test for the PATCH /v1/phone-numbers/{phoneNumber}/activate endpoint.
+     *
+     * This test verifies that an inactive phone number given with separators is activated once,
+     * and that activating it again is rejected.
+     */
+    @Test
+    void activatePhoneNumber_formattedNumber_shouldActivateOnce() {
+        webTestClient.patch().uri(ACTIVATE_PHONE_NUMBER_PATH, 1, "+61 419 876 543")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.phoneNumber").isEqualTo("+61419876543")
+                .jsonPath("$.active").isEqualTo(true);
+
+        webTestClient.patch().uri(ACTIVATE_PHONE_NUMBER_PATH, 1, "+61419876543")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Phone number is already activated");
+    }
+
+    /**
+     * Test for the PATCH /v1/phone-numbers/{phoneNumber}/activate endpoint.
+     *
+     * This test verifies that invalid phone numbers are rejected with 400 BAD REQUEST.
+     */
+    @ParameterizedTest
+    @CsvSource({"1234_5678", "0", "123abc456def789"})
+    void activatePhoneNumber_invalidNumber_shouldReturnBadRequest(String badPhoneNumber) {
+        webTestClient.patch().uri(ACTIVATE_PHONE_NUMBER_PATH, 1, badPhoneNumber)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Test for the schema shared with the servlet service.
+     *
+     * This test verifies that the init scripts apply every migration of the servlet service,
+     * including the indexes of V3, which a hand-written list of scripts could miss.
+     */
+    @Test
+    void schema_shouldInclude_everyMigration() {
+        Long indexes = databaseClient.sql("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                        + "WHERE INDEX_NAME = 'IX_PHONE_NUMBER_CUSTOMER_NUMBER_ACTIVE'")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+
+        assertEquals(1L, indexes);
+    }
+}
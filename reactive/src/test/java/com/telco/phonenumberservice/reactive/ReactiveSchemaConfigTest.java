@@ -0,0 +1,52 @@
+package com.telco.phonenumberservice.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveSchemaConfigTest {
+
+    /**
+     * Test Scenario: Migrations whose versions sort differently as text and as numbers
+     * Expected Outcome: They are ordered by version, as Flyway applies them
+     */
+    @Test
+    void inVersionOrder_shouldCompare_versionsNumerically() {
+        Resource[] migrations = {
+                migration("V10__add_later_index.sql"),
+                migration("V2__insert_test_data.sql"),
+                migration("V1_1__fix_tables.sql"),
+                migration("V1__create_tables.sql"),
+                migration("V9__add_index.sql")
+        };
+
+        assertEquals(List.of("V1__create_tables.sql", "V1_1__fix_tables.sql", "V2__insert_test_data.sql",
+                        "V9__add_index.sql", "V10__add_later_index.sql"),
+                Arrays.stream(ReactiveSchemaConfig.inVersionOrder(migrations)).map(Resource::getFilename).toList());
+    }
+
+    /**
+     * Test Scenario: A script that matches the location pattern but has no valid version
+     * Expected Outcome: Startup fails instead of running it in an arbitrary position
+     */
+    @Test
+    void inVersionOrder_unversionedScript_shouldThrow() {
+        Resource[] migrations = {migration("V1__create_tables.sql"), migration("Vx__broken.sql")};
+
+        assertThrows(IllegalStateException.class, () -> ReactiveSchemaConfig.inVersionOrder(migrations));
+    }
+
+    private static Resource migration(String filename) {
+        return new ByteArrayResource(new byte[0]) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        };
+    }
+}
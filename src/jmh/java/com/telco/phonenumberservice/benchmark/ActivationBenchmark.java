@@ -0,0 +1,58 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activation under contention: eight threads activate numbers drawn from a pool of
+ * {@code hotNumbers}. Each operation activates a number and then resets it to inactive,
+ * so a pool of one number means every thread fights over the same row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class ActivationBenchmark {
+
+    @Param({"1", "1000"})
+    int hotNumbers;
+
+    private ConfigurableApplicationContext context;
+
+    private PhoneNumberService phoneNumberService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("activation" + hotNumbers);
+        BenchmarkDatabase.seed(context, 10_000);
+        phoneNumberService = context.getBean(PhoneNumberService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean activateAndReset() {
+        String phoneNumber = BenchmarkDatabase.phoneNumber(ThreadLocalRandom.current().nextInt(hotNumbers));
+        boolean activated;
+        try {
+            phoneNumberService.activatePhoneNumber(phoneNumber);
+            activated = true;
+        } catch (IllegalStateException e) {
+            activated = false;
+        }
+        jdbcTemplate.update("UPDATE phone_number SET is_active = FALSE WHERE number = ?", phoneNumber);
+        return activated;
+    }
+}
@@ -0,0 +1,52 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.service.PhoneNumberPageDto;
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the whole inventory, streamed and page by page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AllPhoneNumbersBenchmark {
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private PhoneNumberService phoneNumberService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("all" + rows);
+        BenchmarkDatabase.seed(context, rows);
+        phoneNumberService = context.getBean(PhoneNumberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void streamAllPhoneNumbers(Blackhole blackhole) {
+        phoneNumberService.streamAllPhoneNumbers(blackhole::consume);
+    }
+
+    @Benchmark
+    public PhoneNumberPageDto firstPage() {
+        return phoneNumberService.getPhoneNumbersPage(null, 1000);
+    }
+
+    @Benchmark
+    public PhoneNumberPageDto middlePage() {
+        return phoneNumberService.getPhoneNumbersPage(BenchmarkDatabase.phoneNumber(rows / 2), 1000);
+    }
+}
@@ -0,0 +1,70 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.PhoneNumberServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without a web server against its own in-memory database
+ * and seeds it with generated customers and phone numbers.
+ */
+final class BenchmarkDatabase {
+
+    static final int NUMBERS_PER_CUSTOMER = 4;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkDatabase() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return new SpringApplicationBuilder(PhoneNumberServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    /**
+     * Inserts {@code rows} inactive phone numbers, {@link #NUMBERS_PER_CUSTOMER} per customer.
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> customers = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> phoneNumbers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            if (i % NUMBERS_PER_CUSTOMER == 0) {
+                customers.add(new Object[]{customerId(i / NUMBERS_PER_CUSTOMER), "Benchmark customer"});
+            }
+            phoneNumbers.add(new Object[]{customerId(i / NUMBERS_PER_CUSTOMER), phoneNumber(i)});
+            if (phoneNumbers.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, customers, phoneNumbers);
+            }
+        }
+        flush(jdbcTemplate, customers, phoneNumbers);
+    }
+
+    static String customerId(int index) {
+        return String.format("b%07d", index);
+    }
+
+    static String phoneNumber(int index) {
+        return String.format("+614%08d", index);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> customers, List<Object[]> phoneNumbers) {
+        jdbcTemplate.batchUpdate("INSERT INTO customer (customer_id, name) VALUES (?, ?)", customers);
+        jdbcTemplate.batchUpdate("INSERT INTO phone_number (id, customer_id, number, is_active) "
+                + "VALUES (RANDOM_UUID(), ?, ?, FALSE)", phoneNumbers);
+        customers.clear();
+        phoneNumbers.clear();
+    }
+}
@@ -0,0 +1,56 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-customer read path through the service, with the cache cold or warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CustomerPhoneNumbersBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean cached;
+
+    private ConfigurableApplicationContext context;
+
+    private PhoneNumberService phoneNumberService;
+
+    private Cache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("customer" + rows + cached);
+        BenchmarkDatabase.seed(context, rows);
+        phoneNumberService = context.getBean(PhoneNumberService.class);
+        cache = context.getBean(CacheManager.class).getCache(PhoneNumberService.CUSTOMER_PHONE_NUMBERS_CACHE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<String> getAllPhoneNumbersByCustomer() {
+        String customerId = BenchmarkDatabase.customerId(
+                ThreadLocalRandom.current().nextInt(rows / BenchmarkDatabase.NUMBERS_PER_CUSTOMER));
+        if (!cached) {
+            cache.evict(customerId);
+        }
+        return phoneNumberService.getAllPhoneNumbersByCustomer(customerId);
+    }
+}
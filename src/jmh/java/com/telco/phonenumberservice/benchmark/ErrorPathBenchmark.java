@@ -0,0 +1,117 @@
+package com.telco.phonenumberservice.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.telco.phonenumberservice.exception.ApiError;
+import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.exception.PhoneNumberServiceExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A phone number that is not found, from the throw in the service to the response of
+ * PhoneNumberServiceExceptionHandler, thrown {@code depth} frames below the handler as under the
+ * Spring MVC call stack. The legacy path fills in a stack trace, builds a new ApiError and logs at
+ * error synchronously; the current path throws the stackless NotFoundException and gets the shared
+ * response, with its debug log disabled. Both log to an appender that discards the output, so only
+ * formatting and appending are measured, not the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ErrorPathBenchmark {
+
+    private static final org.slf4j.Logger LEGACY_LOG = LoggerFactory.getLogger("legacy.PhoneNumberServiceExceptionHandler");
+
+    @Param({"20", "150"})
+    int depth;
+
+    private PhoneNumberServiceExceptionHandler handler;
+
+    private OutputStreamAppender<ILoggingEvent> appender;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+        appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        handler = new PhoneNumberServiceExceptionHandler();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> legacyNotFound() {
+        try {
+            return throwAt(depth, true);
+        } catch (LegacyNotFoundException e) {
+            LEGACY_LOG.error("Resource not found: {}", e.getMessage());
+            ApiError apiError = ApiError.builder()
+                    .errorId(HttpStatus.NOT_FOUND.getReasonPhrase())
+                    .errorMessage(e.getMessage())
+                    .httpStatus(HttpStatus.NOT_FOUND)
+                    .build();
+            return new ResponseEntity<>(apiError, apiError.getHttpStatus());
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> stacklessNotFound() {
+        try {
+            return throwAt(depth, false);
+        } catch (NotFoundException e) {
+            return handler.handleNotFoundException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> stacklessNotFoundWithDynamicMessage() {
+        try {
+            throw new NotFoundException("Customer ID telco" + depth + " not found.");
+        } catch (NotFoundException e) {
+            return handler.handleNotFoundException(e);
+        }
+    }
+
+    private static ResponseEntity<ApiError> throwAt(int depth, boolean legacy) {
+        if (depth > 0) {
+            return throwAt(depth - 1, legacy);
+        }
+        if (legacy) {
+            throw new LegacyNotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND);
+        }
+        throw new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND);
+    }
+
+    /**
+     * NotFoundException as it was, filling in its stack trace.
+     */
+    private static final class LegacyNotFoundException extends RuntimeException {
+
+        private LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
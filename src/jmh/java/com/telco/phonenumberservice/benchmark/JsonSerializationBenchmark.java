@@ -0,0 +1,50 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telco.phonenumberservice.service.PhoneNumberResponseDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the response bodies returned by PhoneNumberController.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<String> phoneNumbers;
+
+    private PhoneNumberResponseDto phoneNumberResponseDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        phoneNumbers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            phoneNumbers.add(BenchmarkDatabase.phoneNumber(i));
+        }
+        phoneNumberResponseDto = PhoneNumberResponseDto.builder()
+                .phoneNumber("+61412345678")
+                .isActive(true)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] phoneNumberList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(phoneNumbers);
+    }
+
+    @Benchmark
+    public byte[] phoneNumberResponseDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(phoneNumberResponseDto);
+    }
+}
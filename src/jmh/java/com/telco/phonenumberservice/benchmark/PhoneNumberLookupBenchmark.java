@@ -0,0 +1,75 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.repository.customer.CustomerRepository;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndexLoader;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups by number and by customer, with and without the indexes added in V3,
+ * and the same number lookup against the in-memory PhoneNumberIndex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhoneNumberLookupBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    private ConfigurableApplicationContext context;
+
+    private PhoneNumberRepository phoneNumberRepository;
+
+    private CustomerRepository customerRepository;
+
+    private PhoneNumberIndex phoneNumberIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("lookup" + rows + indexed);
+        if (!indexed) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.execute("DROP INDEX ux_phone_number_number");
+            jdbcTemplate.execute("DROP INDEX ix_phone_number_customer_number_active");
+        }
+        BenchmarkDatabase.seed(context, rows);
+        phoneNumberIndex = new PhoneNumberIndex();
+        new PhoneNumberIndexLoader(context.getBean(JdbcTemplate.class), phoneNumberIndex).reload();
+        phoneNumberRepository = context.getBean(PhoneNumberRepository.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean existsByNumber() {
+        return phoneNumberRepository.existsByNumber(
+                BenchmarkDatabase.phoneNumber(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public PhoneNumberIndex.Status indexStatus() {
+        return phoneNumberIndex.status(
+                BenchmarkDatabase.phoneNumber(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public List<String> findPhoneNumbersByCustomerId() {
+        return customerRepository.findPhoneNumbersByCustomerId(BenchmarkDatabase.customerId(
+                ThreadLocalRandom.current().nextInt(rows / BenchmarkDatabase.NUMBERS_PER_CUSTOMER)));
+    }
+}
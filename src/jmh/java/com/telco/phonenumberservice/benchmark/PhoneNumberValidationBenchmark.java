@@ -0,0 +1,84 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.controller.PhoneNumberController;
+import com.telco.phonenumberservice.validation.PhoneNumberNormalizer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.executable.ExecutableValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Bean validation of the phone number path variable of the activation endpoint,
+ * exactly as declared on PhoneNumberController, and the PhoneNumberNormalizer
+ * behind it compared with the regular expression it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PhoneNumberValidationBenchmark {
+
+    private static final Pattern LEGACY_PHONE_NUMBER_PATTERN =
+            Pattern.compile("^[+]?\\d{1,3}?[- .()]?\\d+([- .()]?\\d+)*$");
+
+    @Param({
+            "+61412345678",
+            "+61 412 345 678",
+            "+61 (412) 345-678",
+            "1234_5678",
+            "1111111111111111111a"
+    })
+    String phoneNumber;
+
+    private ValidatorFactory validatorFactory;
+
+    private ExecutableValidator executableValidator;
+
+    private PhoneNumberController controller;
+
+    private Method activatePhoneNumber;
+
+    private Object[] arguments;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        executableValidator = validatorFactory.getValidator().forExecutables();
+        Constructor<?> constructor = PhoneNumberController.class.getConstructors()[0];
+        controller = (PhoneNumberController) constructor.newInstance(new Object[constructor.getParameterCount()]);
+        activatePhoneNumber = PhoneNumberController.class.getMethod("activatePhoneNumber", String.class, HttpHeaders.class);
+        arguments = new Object[]{phoneNumber, new HttpHeaders()};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PhoneNumberController>> validateActivationPathVariable() {
+        return executableValidator.validateParameters(controller, activatePhoneNumber, arguments);
+    }
+
+    @Benchmark
+    public boolean legacyRegexMatch() {
+        return LEGACY_PHONE_NUMBER_PATTERN.matcher(phoneNumber).matches();
+    }
+
+    @Benchmark
+    public boolean normalizerIsValid() {
+        return PhoneNumberNormalizer.isValid(phoneNumber);
+    }
+
+    @Benchmark
+    public String normalizerNormalize() {
+        return PhoneNumberNormalizer.normalize(phoneNumber);
+    }
+}
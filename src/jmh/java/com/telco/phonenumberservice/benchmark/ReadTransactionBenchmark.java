@@ -0,0 +1,74 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.telco.phonenumberservice.repository.customer.CustomerRepository;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumber;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-customer lookup as it used to run, loading managed entities in a read-write transaction,
+ * against the number projection in a read-only transaction. Compare gc.alloc.rate.norm, the bytes
+ * allocated per lookup, reported by the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadTransactionBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private PhoneNumberRepository phoneNumberRepository;
+
+    private CustomerRepository customerRepository;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("read" + rows);
+        BenchmarkDatabase.seed(context, rows);
+        phoneNumberRepository = context.getBean(PhoneNumberRepository.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> entitiesInReadWriteTransaction() {
+        String customerId = randomCustomerId();
+        return readWriteTransaction.execute(status -> phoneNumberRepository.findByCustomer_CustomerId(customerId)
+                .stream()
+                .map(PhoneNumber::getNumber)
+                .toList());
+    }
+
+    @Benchmark
+    public List<String> projectionInReadOnlyTransaction() {
+        String customerId = randomCustomerId();
+        return readOnlyTransaction.execute(status -> customerRepository.findPhoneNumbersByCustomerId(customerId));
+    }
+
+    private String randomCustomerId() {
+        return BenchmarkDatabase.customerId(
+                ThreadLocalRandom.current().nextInt(rows / BenchmarkDatabase.NUMBERS_PER_CUSTOMER));
+    }
+}
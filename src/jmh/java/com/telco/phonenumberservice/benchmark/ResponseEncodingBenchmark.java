@@ -0,0 +1,107 @@
+package com.telco.phonenumberservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telco.phonenumberservice.controller.PhoneNumberCborEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time of the list of all phone numbers in each representation that
+ * PhoneNumberController can return, with and without gzip. Payload sizes are printed
+ * once per trial, as they do not vary between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseEncodingBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<String> phoneNumbers;
+
+    private byte[] encodedCbor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        phoneNumbers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            phoneNumbers.add(BenchmarkDatabase.phoneNumber(i));
+        }
+        encodedCbor = cbor();
+        System.out.printf("%n%d phone numbers: json=%d B, ndjson=%d B, cbor=%d B, json+gzip=%d B, cbor+gzip=%d B%n",
+                size, json().length, ndjson().length, encodedCbor.length, jsonGzip().length, cborGzip().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeJson(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] ndjson() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            for (String phoneNumber : phoneNumbers) {
+                generator.writeString(phoneNumber);
+                generator.writeRaw('\n');
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeCbor(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeJson(new GZIPOutputStream(outputStream));
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cborGzip() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeCbor(new GZIPOutputStream(outputStream));
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public List<String> cborDecode() throws IOException {
+        return PhoneNumberCborEncoding.decode(encodedCbor);
+    }
+
+    private void writeJson(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (String phoneNumber : phoneNumbers) {
+                generator.writeString(phoneNumber);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeCbor(OutputStream outputStream) throws IOException {
+        try (PhoneNumberCborEncoding.Writer writer = PhoneNumberCborEncoding.writer(outputStream)) {
+            phoneNumbers.forEach(writer);
+        }
+    }
+}
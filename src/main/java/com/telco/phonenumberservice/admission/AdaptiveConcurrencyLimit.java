@@ -0,0 +1,106 @@
+package com.telco.phonenumberservice.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * A limit on the requests in flight that adapts to their latency: additive increase, multiplicative
+ * decrease (AIMD).
+ *
+ * Every request that completes within the latency target while the limit is at least half used
+ * raises the limit by 1/limit, so the limit grows by about one per round of requests. A request
+ * slower than the target cuts the limit by {@link #BACKOFF_RATIO}, at most once per target
+ * interval, so one burst of slow requests does not collapse it. The limit stays between the
+ * configured minimum and maximum.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyTargetNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong limitBits;
+
+    private final AtomicLong lastDecrease = new AtomicLong();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos,
+                                    LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.nanoClock = nanoClock;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.lastDecrease.set(nanoClock.getAsLong() - latencyTargetNanos);
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. An admitted request must be released.
+     */
+    public boolean tryAcquire() {
+        int limit = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request without adapting the limit, for requests whose latency says
+     * nothing about the load, such as streams whose length depends on their size.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to its latency.
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos > latencyTargetNanos) {
+            long now = nanoClock.getAsLong();
+            long last = lastDecrease.get();
+            if (now - last >= latencyTargetNanos && lastDecrease.compareAndSet(last, now)) {
+                updateLimit(limit -> Math.max(minLimit, limit * BACKOFF_RATIO));
+            }
+        } else if (inFlightBefore * 2 >= limit()) {
+            updateLimit(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        while (true) {
+            long current = limitBits.get();
+            long next = Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(current)));
+            if (current == next || limitBits.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.telco.phonenumberservice.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.telco.phonenumberservice.datasource.PrimaryPinningInterceptor;
+import com.telco.phonenumberservice.exception.ServiceUnavailableException;
+import com.telco.phonenumberservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Turns requests away before they take a thread or a connection when a client sends too many or
+ * the service is overloaded.
+ *
+ * Each client, told apart by the {@value PrimaryPinningInterceptor#CLIENT_ID_HEADER} header or by
+ * its address, has a {@link TokenBucket}; a client with an empty bucket gets 429 with the time until
+ * its next token as Retry-After. Each endpoint has an {@link AdaptiveConcurrencyLimit}; a request
+ * above it gets 503. Both are thrown as exceptions, so PhoneNumberServiceExceptionHandler writes the
+ * response like any other error.
+ *
+ * A request holds its place until it completes, including the Callable or streamed body that runs
+ * after the request thread has been released, and its latency from admission to completion is fed
+ * back to the limit of its endpoint. Endpoints that stream their body are the exception: how long
+ * a stream takes depends on how much it sends, not on the load, so their requests hold a place but
+ * their latency is not fed back and their limit stays at the initial limit. Rejections are counted
+ * in {@value #REJECTED_NAME}, tagged with the reason, and the limit of every endpoint is published
+ * as {@value #LIMIT_NAME}.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    static final String REJECTED_NAME = "phone.number.service.admission.rejected";
+
+    static final String LIMIT_NAME = "phone.number.service.admission.limit";
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admission";
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    private static final long MAX_CLIENTS = 100_000;
+
+    private static final Duration CLIENT_RETENTION = Duration.ofMinutes(5);
+
+    private final Class<?> controllerType;
+
+    private final double requestsPerSecondPerClient;
+
+    private final int burstPerClient;
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final Duration latencyTarget;
+
+    private final Duration retryAfterOverload;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LongSupplier nanoClock;
+
+    private final Cache<String, TokenBucket> clientBuckets = Caffeine.newBuilder()
+            .maximumSize(MAX_CLIENTS)
+            .expireAfterAccess(CLIENT_RETENTION)
+            .build();
+
+    private final ConcurrentHashMap<Method, EndpointLimit> endpointLimits = new ConcurrentHashMap<>();
+
+    public AdmissionControlInterceptor(Class<?> controllerType, double requestsPerSecondPerClient, int burstPerClient,
+                                       int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+                                       Duration retryAfterOverload, MeterRegistry meterRegistry) {
+        this(controllerType, requestsPerSecondPerClient, burstPerClient, initialLimit, minLimit, maxLimit,
+                latencyTarget, retryAfterOverload, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionControlInterceptor(Class<?> controllerType, double requestsPerSecondPerClient, int burstPerClient,
+                                int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+                                Duration retryAfterOverload, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.controllerType = controllerType;
+        this.requestsPerSecondPerClient = requestsPerSecondPerClient;
+        this.burstPerClient = burstPerClient;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTarget = latencyTarget;
+        this.retryAfterOverload = retryAfterOverload;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod handlerMethod)
+                || !controllerType.isAssignableFrom(handlerMethod.getBeanType())) {
+            return true;
+        }
+        TokenBucket bucket = clientBuckets.get(clientId(request),
+                clientId -> new TokenBucket(requestsPerSecondPerClient, burstPerClient, nanoClock));
+        long waitNanos = bucket.tryAcquire();
+        if (waitNanos > 0) {
+            rejected("rate-limit");
+            throw new TooManyRequestsException("Too many requests from this client",
+                    Duration.ofSeconds(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        }
+        EndpointLimit endpointLimit = endpointLimits.computeIfAbsent(handlerMethod.getMethod(), this::newLimit);
+        if (!endpointLimit.limit().tryAcquire()) {
+            rejected("concurrency-limit");
+            throw new ServiceUnavailableException("Service is overloaded", retryAfterOverload);
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(endpointLimit, nanoClock.getAsLong()));
+        return true;
+    }
+
+    /**
+     * Called once the request has completed, after the asynchronous part if there was one.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMISSION_ATTRIBUTE) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            EndpointLimit endpointLimit = admission.endpointLimit();
+            if (endpointLimit.streaming()) {
+                endpointLimit.limit().release();
+            } else {
+                endpointLimit.limit().release(nanoClock.getAsLong() - admission.startNanos());
+            }
+        }
+    }
+
+    private EndpointLimit newLimit(Method method) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                latencyTarget.toNanos(), nanoClock);
+        Gauge.builder(LIMIT_NAME, limit, AdaptiveConcurrencyLimit::limit)
+                .description("Requests admitted in flight per endpoint before new ones are turned away")
+                .tag("endpoint", method.getName())
+                .register(meterRegistry);
+        return new EndpointLimit(limit, isStreaming(method));
+    }
+
+    /**
+     * Returns whether the endpoint writes its body after the handler has returned, as a stream.
+     */
+    private static boolean isStreaming(Method method) {
+        ResolvableType body = ResolvableType.forMethodReturnType(method);
+        if (HttpEntity.class.isAssignableFrom(body.toClass())) {
+            body = body.as(HttpEntity.class).getGeneric(0);
+        }
+        Class<?> bodyType = body.toClass();
+        return StreamingResponseBody.class.isAssignableFrom(bodyType) || ResponseBodyEmitter.class.isAssignableFrom(bodyType);
+    }
+
+    private void rejected(String reason) {
+        Counter.builder(REJECTED_NAME)
+                .description("Requests turned away by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        String clientId = request.getHeader(PrimaryPinningInterceptor.CLIENT_ID_HEADER);
+        if (clientId == null || clientId.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return clientId.length() > MAX_CLIENT_ID_LENGTH ? clientId.substring(0, MAX_CLIENT_ID_LENGTH) : clientId;
+    }
+
+    private record EndpointLimit(AdaptiveConcurrencyLimit limit, boolean streaming) {
+    }
+
+    private record Admission(EndpointLimit endpointLimit, long startNanos) {
+    }
+}
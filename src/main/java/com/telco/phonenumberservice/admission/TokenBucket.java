@@ -0,0 +1,52 @@
+package com.telco.phonenumberservice.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket refilled at a fixed rate, kept lock-free as a single atomic timestamp.
+ *
+ * The bucket stores the time at which it will be full again (the generic cell rate algorithm).
+ * Taking a token moves that time one refill interval later; the token is refused when the bucket
+ * would then be full further ahead than the burst allows, which is the same as being empty.
+ */
+public class TokenBucket {
+
+    private final long refillIntervalNanos;
+
+    private final long burstNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong fullAt;
+
+    /**
+     * @param tokensPerSecond the rate at which tokens are added
+     * @param burst the number of tokens the bucket holds when full
+     */
+    public TokenBucket(double tokensPerSecond, int burst, LongSupplier nanoClock) {
+        this.refillIntervalNanos = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = refillIntervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a token if one is left.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is added
+     */
+    public long tryAcquire() {
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current - now, 0) + refillIntervalNanos;
+            if (next > burstNanos) {
+                return next - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, now + next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.telco.phonenumberservice.coalescing;
+
+import com.telco.phonenumberservice.service.PhoneNumberVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collapses concurrent identical reads of PhoneNumberService into one: customer lists by customer ID,
+ * pages by their arguments, and streams of phone numbers by their filters, see {@link SingleFlight}
+ * and {@link SingleFlightStreams}. Calls that shared another call's read are counted in
+ * {@code phone.number.service.coalesced}, tagged with the method.
+ *
+ * The version of the list, as in PhoneNumberVersions, is part of the key, so a call only shares a read
+ * that started while the version it sees was current. Versions change after a write has committed, and
+ * the controller reads the version for the ETag before calling the service, so a shared read already
+ * sees every write the ETag stands for and a response is never older than its ETag.
+ *
+ * The advice runs outside the cache advice, so callers that miss the cache at the same moment share
+ * one database read, and inside the metrics advice, so coalesced calls still show up in the latency.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 3)
+public class PhoneNumberServiceCoalescing {
+
+    static final String COALESCED_NAME = "phone.number.service.coalesced";
+
+    private static final String SERVICE = "com.telco.phonenumberservice.service.PhoneNumberService";
+
+    private final SingleFlight<List<Object>, Object> reads = new SingleFlight<>();
+
+    private final SingleFlightStreams<List<Object>> streams;
+
+    private final MeterRegistry meterRegistry;
+
+    private final PhoneNumberVersions phoneNumberVersions;
+
+    public PhoneNumberServiceCoalescing(MeterRegistry meterRegistry, PhoneNumberVersions phoneNumberVersions,
+                                        long maxBufferedNumbers) {
+        this.meterRegistry = meterRegistry;
+        this.phoneNumberVersions = phoneNumberVersions;
+        this.streams = new SingleFlightStreams<>(maxBufferedNumbers);
+    }
+
+    @Around("execution(* " + SERVICE + ".getAllPhoneNumbersByCustomer(String)) && args(customerId)")
+    public Object coalesceCustomerRead(ProceedingJoinPoint joinPoint, String customerId) throws Throwable {
+        return reads.execute(key("getAllPhoneNumbersByCustomer",
+                        phoneNumberVersions.customerPhoneNumbersVersion(customerId), customerId),
+                joinPoint::proceed, () -> coalesced("getAllPhoneNumbersByCustomer"));
+    }
+
+    @Around("execution(* " + SERVICE + ".getPhoneNumbersPage(String, int))"
+            + " || execution(* " + SERVICE + ".searchPhoneNumbersPage(String, Boolean, String, int))")
+    public Object coalescePageRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        return reads.execute(key(method, phoneNumberVersions.phoneNumbersVersion(), joinPoint.getArgs()),
+                joinPoint::proceed, () -> coalesced(method));
+    }
+
+    @Around("execution(* " + SERVICE + ".streamAllPhoneNumbers(java.util.function.Consumer)) && args(consumer)")
+    public Object coalesceStreamAll(ProceedingJoinPoint joinPoint, Consumer<String> consumer) throws Throwable {
+        streams.stream(key("streamAllPhoneNumbers", phoneNumberVersions.phoneNumbersVersion()), consumer,
+                shared -> joinPoint.proceed(new Object[]{shared}),
+                () -> coalesced("streamAllPhoneNumbers"));
+        return null;
+    }
+
+    @Around("execution(* " + SERVICE + ".streamPhoneNumbers(String, Boolean, java.util.function.Consumer))"
+            + " && args(prefix, active, consumer)")
+    public Object coalesceStream(ProceedingJoinPoint joinPoint, String prefix, Boolean active,
+                                 Consumer<String> consumer) throws Throwable {
+        streams.stream(key("streamPhoneNumbers", phoneNumberVersions.phoneNumbersVersion(), prefix, active),
+                consumer,
+                shared -> joinPoint.proceed(new Object[]{prefix, active, shared}),
+                () -> coalesced("streamPhoneNumbers"));
+        return null;
+    }
+
+    private void coalesced(String method) {
+        Counter.builder(COALESCED_NAME)
+                .description("PhoneNumberService calls that shared the read of a concurrent identical call")
+                .tag("method", method)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * The method, the version of its list and its arguments; arguments may be null, so the key is
+     * not built with List.of.
+     */
+    private static List<Object> key(String method, String version, Object... args) {
+        Object[] key = new Object[args.length + 2];
+        key[0] = method;
+        key[1] = version;
+        System.arraycopy(args, 0, key, 2, args.length);
+        return Arrays.asList(key);
+    }
+}
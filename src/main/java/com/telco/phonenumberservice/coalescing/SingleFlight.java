@@ -0,0 +1,53 @@
+package com.telco.phonenumberservice.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses concurrent calls with equal keys into one load.
+ *
+ * The first call for a key runs the load; calls for the same key that arrive while it runs wait
+ * for it and get its result, or its exception. Nothing is kept once the load has finished, so a
+ * call never gets a result that was loaded before it was made, unless the load was still running.
+ *
+ * @param <K> the key of a load
+ * @param <V> the result of a load
+ */
+public class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    public interface Load<V> {
+        V load() throws Throwable;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the load, or waits for the running load with an equal key.
+     *
+     * @param onCoalesced called when this call shares the load of another call
+     */
+    public V execute(K key, Load<V> load, Runnable onCoalesced) throws Throwable {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            onCoalesced.run();
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            V result = load.load();
+            flight.complete(result);
+            return result;
+        } catch (Throwable throwable) {
+            flight.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+}
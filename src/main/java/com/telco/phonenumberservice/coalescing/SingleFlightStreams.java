@@ -0,0 +1,253 @@
+package com.telco.phonenumberservice.coalescing;
+
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Collapses concurrent streams of phone numbers with equal keys into one read.
+ *
+ * The first call for a key reads the phone numbers and hands them to its consumer, keeping a copy
+ * packed as by {@link PhoneNumberIndex#pack(CharSequence)}, about 8 bytes per number. Calls for the
+ * same key that arrive during the read replay the copy from its start, then follow the read as it
+ * goes on. The copy is dropped once the read has ended and every replay has finished.
+ *
+ * Once the copy holds {@code maxBufferedNumbers} numbers without anyone replaying it, it is dropped
+ * and later calls read on their own, so a long read nobody shares does not hold the whole list.
+ * The reading call feeds its own consumer as it reads, so its client paces the replays; if that
+ * consumer fails while others replay, the read goes on for them and the failure is thrown at the end.
+ *
+ * @param <K> the key of a stream
+ */
+public class SingleFlightStreams<K> {
+
+    @FunctionalInterface
+    public interface StreamLoad {
+        void load(Consumer<String> consumer) throws Throwable;
+    }
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final ConcurrentHashMap<K, SharedStream> streams = new ConcurrentHashMap<>();
+
+    private final long maxBufferedNumbers;
+
+    public SingleFlightStreams(long maxBufferedNumbers) {
+        this.maxBufferedNumbers = maxBufferedNumbers;
+    }
+
+    /**
+     * Streams the phone numbers to the consumer, reading them or replaying the running read with an equal key.
+     *
+     * @param onCoalesced called when this call replays the read of another call
+     */
+    public void stream(K key, Consumer<String> consumer, StreamLoad load, Runnable onCoalesced) throws Throwable {
+        SharedStream stream = new SharedStream(key);
+        SharedStream running = streams.putIfAbsent(key, stream);
+        if (running != null) {
+            if (running.join()) {
+                onCoalesced.run();
+                running.replay(consumer);
+            } else {
+                load.load(consumer);
+            }
+            return;
+        }
+        try {
+            load.load(phoneNumber -> stream.append(phoneNumber, consumer));
+            stream.end(null);
+        } catch (Throwable throwable) {
+            stream.end(throwable);
+            throw throwable;
+        } finally {
+            streams.remove(key, stream);
+        }
+        stream.rethrowConsumerFailure();
+    }
+
+    private static final class Chunk {
+
+        private final long[] packed = new long[CHUNK_SIZE];
+
+        private String[] unpackable;
+    }
+
+    private final class SharedStream {
+
+        private final K key;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition appended = lock.newCondition();
+
+        private final List<Chunk> chunks = new ArrayList<>();
+
+        private long size;
+
+        private int replays;
+
+        private boolean shared = true;
+
+        private boolean ended;
+
+        private Throwable failure;
+
+        private RuntimeException consumerFailure;
+
+        private SharedStream(K key) {
+            this.key = key;
+        }
+
+        /**
+         * Registers a replay, unless the copy has already been dropped.
+         */
+        private boolean join() {
+            lock.lock();
+            try {
+                if (!shared) {
+                    return false;
+                }
+                replays++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void append(String phoneNumber, Consumer<String> consumer) {
+            if (shared) {
+                buffer(phoneNumber);
+            }
+            if (consumerFailure != null) {
+                return;
+            }
+            try {
+                consumer.accept(phoneNumber);
+            } catch (RuntimeException e) {
+                if (unshareIfNotReplayed()) {
+                    throw e;
+                }
+                consumerFailure = e;
+            }
+        }
+
+        private void buffer(String phoneNumber) {
+            lock.lock();
+            try {
+                if (size >= maxBufferedNumbers && unshareIfNotReplayed()) {
+                    return;
+                }
+                int offset = (int) (size % CHUNK_SIZE);
+                if (offset == 0) {
+                    chunks.add(new Chunk());
+                }
+                Chunk chunk = chunks.getLast();
+                long packed = PhoneNumberIndex.pack(phoneNumber);
+                chunk.packed[offset] = packed;
+                if (packed == PhoneNumberIndex.NOT_PACKABLE) {
+                    if (chunk.unpackable == null) {
+                        chunk.unpackable = new String[CHUNK_SIZE];
+                    }
+                    chunk.unpackable[offset] = phoneNumber;
+                }
+                size++;
+                if (offset == CHUNK_SIZE - 1) {
+                    appended.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Drops the copy and stops further calls from joining, unless a replay is running.
+         */
+        private boolean unshareIfNotReplayed() {
+            lock.lock();
+            try {
+                if (replays > 0) {
+                    return false;
+                }
+                shared = false;
+                chunks.clear();
+                streams.remove(key, this);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void end(Throwable throwable) {
+            lock.lock();
+            try {
+                ended = true;
+                failure = throwable;
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void rethrowConsumerFailure() {
+            if (consumerFailure != null) {
+                throw consumerFailure;
+            }
+        }
+
+        /**
+         * Hands every number of the copy to the consumer, waiting for the read whenever it catches up.
+         * Numbers below {@code size} are never changed again, so they are read outside the lock.
+         */
+        private void replay(Consumer<String> consumer) throws Throwable {
+            long position = 0;
+            try {
+                while (true) {
+                    long available;
+                    List<Chunk> readable;
+                    boolean complete;
+                    Throwable readFailure;
+                    lock.lock();
+                    try {
+                        while (position == size && !ended) {
+                            appended.await();
+                        }
+                        available = size;
+                        readable = List.copyOf(chunks.subList((int) (position / CHUNK_SIZE),
+                                (int) ((available + CHUNK_SIZE - 1) / CHUNK_SIZE)));
+                        complete = ended;
+                        readFailure = failure;
+                    } finally {
+                        lock.unlock();
+                    }
+                    long first = position - position % CHUNK_SIZE;
+                    for (; position < available; position++) {
+                        Chunk chunk = readable.get((int) ((position - first) / CHUNK_SIZE));
+                        int offset = (int) (position % CHUNK_SIZE);
+                        long packed = chunk.packed[offset];
+                        consumer.accept(packed == PhoneNumberIndex.NOT_PACKABLE
+                                ? chunk.unpackable[offset]
+                                : PhoneNumberIndex.unpack(packed));
+                    }
+                    if (complete) {
+                        if (readFailure != null) {
+                            throw readFailure;
+                        }
+                        return;
+                    }
+                }
+            } finally {
+                lock.lock();
+                try {
+                    replays--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
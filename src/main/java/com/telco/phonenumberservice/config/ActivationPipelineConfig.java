@@ -0,0 +1,50 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+import com.telco.phonenumberservice.service.ActivationPipeline;
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Enables the asynchronous {@link ActivationPipeline} and its endpoints. Queued activations are
+ * held in memory only, so activations accepted but not yet applied are lost if the process dies.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "phone-number-service.activation-pipeline", name = "enabled", havingValue = "true")
+public class ActivationPipelineConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ActivationPipeline activationPipeline(
+            PhoneNumberService phoneNumberService,
+            Optional<PhoneNumberIndex> phoneNumberIndex,
+            @Value("${phone-number-service.activation-pipeline.shards:4}") int shards,
+            @Value("${phone-number-service.activation-pipeline.queue-capacity:10000}") int queueCapacity,
+            @Value("${phone-number-service.activation-pipeline.batch-size:500}") int batchSize,
+            @Value("${phone-number-service.activation-pipeline.status-retention:PT15M}") Duration statusRetention,
+            @Value("${phone-number-service.activation-pipeline.retry-after:PT1S}") Duration retryAfter
+    ) {
+        return new ActivationPipeline(phoneNumberService, phoneNumberIndex,
+                shards, queueCapacity, batchSize, statusRetention, retryAfter);
+    }
+
+    @Bean
+    public MeterBinder activationPipelineMetrics(ActivationPipeline activationPipeline) {
+        return registry -> {
+            for (int shard = 0; shard < activationPipeline.shards(); shard++) {
+                int queue = shard;
+                Gauge.builder("activation.pipeline.queue.size", activationPipeline, pipeline -> pipeline.queueSize(queue))
+                        .tag("shard", Integer.toString(shard))
+                        .description("Activations queued and not yet applied")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.admission.AdmissionControlInterceptor;
+import com.telco.phonenumberservice.controller.PhoneNumberController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Rate-limits clients and sheds load in front of {@link PhoneNumberController}, see
+ * {@link AdmissionControlInterceptor}. The interceptor runs before every other one, so a request
+ * that is turned away costs as little as possible.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "phone-number-service.admission-control", name = "enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor(
+            MeterRegistry meterRegistry,
+            @Value("${phone-number-service.admission-control.client.requests-per-second:200}") double requestsPerSecond,
+            @Value("${phone-number-service.admission-control.client.burst:400}") int burst,
+            @Value("${phone-number-service.admission-control.concurrency.initial-limit:64}") int initialLimit,
+            @Value("${phone-number-service.admission-control.concurrency.min-limit:8}") int minLimit,
+            @Value("${phone-number-service.admission-control.concurrency.max-limit:512}") int maxLimit,
+            @Value("${phone-number-service.admission-control.concurrency.latency-target:PT0.25S}") Duration latencyTarget,
+            @Value("${phone-number-service.admission-control.retry-after:PT1S}") Duration retryAfter
+    ) {
+        return new AdmissionControlInterceptor(PhoneNumberController.class, requestsPerSecond, burst,
+                initialLimit, minLimit, maxLimit, latencyTarget, retryAfter, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer admissionControlWebMvcConfigurer(AdmissionControlInterceptor admissionControlInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(admissionControlInterceptor).order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.telco.phonenumberservice.config;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stops the application when it runs with the Spring AOT initializers (spring.aot.enabled) and a
+ * feature switch disagrees with the build. The AOT initializers contain the beans selected by the
+ * switches at build time, so a switch changed at runtime would otherwise be ignored without notice.
+ */
+public class AotSwitchesCheck implements SmartInitializingSingleton {
+
+    /**
+     * The switches that add or remove beans, with a bean type that exists exactly when the switch is on.
+     */
+    static final Map<String, Class<?>> SWITCHES = switches();
+
+    private final ListableBeanFactory beanFactory;
+
+    private final Environment environment;
+
+    private final boolean aotEnabled;
+
+    public AotSwitchesCheck(ListableBeanFactory beanFactory, Environment environment, boolean aotEnabled) {
+        this.beanFactory = beanFactory;
+        this.environment = environment;
+        this.aotEnabled = aotEnabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!aotEnabled) {
+            return;
+        }
+        List<String> mismatches = new ArrayList<>();
+        SWITCHES.forEach((property, beanType) -> {
+            boolean enabled = environment.getProperty(property, Boolean.class, false);
+            boolean built = beanFactory.getBeanNamesForType(beanType, true, false).length > 0;
+            if (enabled != built) {
+                mismatches.add(property + "=" + enabled + " (AOT build: " + built + ")");
+            }
+        });
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Properties disagree with the AOT build, rebuild it with the same "
+                    + "profiles or start without spring.aot.enabled: " + String.join(", ", mismatches));
+        }
+    }
+
+    private static Map<String, Class<?>> switches() {
+        Map<String, Class<?>> switches = new LinkedHashMap<>();
+        switches.put("phone-number-service.index.enabled", PhoneNumberIndexConfig.class);
+        switches.put("phone-number-service.activation-pipeline.enabled", ActivationPipelineConfig.class);
+        switches.put("phone-number-service.replicas.enabled", ReplicaRoutingConfig.class);
+        switches.put("phone-number-service.sharding.enabled", ShardingConfig.class);
+        switches.put("phone-number-service.admission-control.enabled", AdmissionControlConfig.class);
+        switches.put("phone-number-service.coalescing.enabled", CoalescingConfig.class);
+        return switches;
+    }
+}
@@ -0,0 +1,40 @@
+package com.telco.phonenumberservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Selects the executor that runs Callable controller results, see {@link ExecutionMode}.
+ */
+@Slf4j
+@Configuration
+public class AsyncExecutionConfig implements WebMvcConfigurer {
+
+    private final ExecutionMode executionMode;
+
+    public AsyncExecutionConfig(@Value("${phone-number-service.execution.mode:PLATFORM}") ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        log.info("Running controller Callables in {} mode", executionMode);
+        switch (executionMode) {
+            case VIRTUAL -> {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+                executor.setVirtualThreads(true);
+                configurer.setTaskExecutor(executor);
+            }
+            case INLINE -> configurer.setTaskExecutor(new TaskExecutorAdapter(new SyncTaskExecutor()));
+            case PLATFORM -> {
+                // keep the application task executor configured by Spring Boot
+            }
+        }
+    }
+}
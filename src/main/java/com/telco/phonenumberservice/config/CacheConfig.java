@@ -0,0 +1,88 @@
+package com.telco.phonenumberservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import static com.telco.phonenumberservice.service.PhoneNumberService.CUSTOMER_PHONE_NUMBERS_CACHE;
+
+/**
+ * In-process caches. Hit, miss and eviction counters are published by Spring Boot's
+ * cache metrics under {@code cache.gets} and {@code cache.evictions}; the estimated
+ * memory held by each cache is published as {@code cache.weighted.size}.
+ *
+ * The cache advice runs outside the transaction advice, so a cache hit never opens a transaction.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 2)
+public class CacheConfig {
+
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int LIST_OVERHEAD_BYTES = 40;
+    private static final int REFERENCE_BYTES = 4;
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${phone-number-service.cache.customer-phone-numbers.max-weight-bytes:67108864}") long maxWeightBytes,
+            @Value("${phone-number-service.cache.customer-phone-numbers.ttl:PT5M}") Duration ttl
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CUSTOMER_PHONE_NUMBERS_CACHE, Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher(CacheConfig::estimateSizeInBytes)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    @Bean
+    public MeterBinder cacheWeightMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(name -> {
+            if (cacheManager.getCache(name) instanceof CaffeineCache caffeineCache) {
+                Gauge.builder("cache.weighted.size", caffeineCache.getNativeCache(), nativeCache -> nativeCache.policy()
+                                .eviction()
+                                .map(eviction -> eviction.weightedSize().orElse(0L))
+                                .orElse(0L))
+                        .tag("cache", name)
+                        .baseUnit("bytes")
+                        .description("Estimated memory held by the cache entries")
+                        .register(registry);
+            }
+        });
+    }
+
+    /**
+     * Rough retained size of a cache entry, assuming compact strings and compressed references.
+     */
+    static int estimateSizeInBytes(Object key, Object value) {
+        long size = sizeOf(key);
+        if (value instanceof Collection<?> collection) {
+            size += LIST_OVERHEAD_BYTES + (long) REFERENCE_BYTES * collection.size();
+            for (Object element : collection) {
+                size += sizeOf(element);
+            }
+        } else {
+            size += sizeOf(value);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long sizeOf(Object object) {
+        if (object instanceof String string) {
+            return STRING_OVERHEAD_BYTES + string.length();
+        }
+        return STRING_OVERHEAD_BYTES;
+    }
+}
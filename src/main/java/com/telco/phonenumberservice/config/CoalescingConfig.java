@@ -0,0 +1,27 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.coalescing.PhoneNumberServiceCoalescing;
+import com.telco.phonenumberservice.service.PhoneNumberVersions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Collapses concurrent identical reads into one database read. Unlike the cache, nothing is kept
+ * once the read has finished, so a call never gets data read before the oldest call it shares a read with.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "phone-number-service.coalescing", name = "enabled", havingValue = "true")
+public class CoalescingConfig {
+
+    @Bean
+    public PhoneNumberServiceCoalescing phoneNumberServiceCoalescing(
+            MeterRegistry meterRegistry,
+            PhoneNumberVersions phoneNumberVersions,
+            @Value("${phone-number-service.coalescing.max-buffered-numbers:1000000}") long maxBufferedNumbers
+    ) {
+        return new PhoneNumberServiceCoalescing(meterRegistry, phoneNumberVersions, maxBufferedNumbers);
+    }
+}
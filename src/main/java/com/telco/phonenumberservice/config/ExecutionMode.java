@@ -0,0 +1,22 @@
+package com.telco.phonenumberservice.config;
+
+/**
+ * Where the Callable returned by a controller method runs.
+ */
+public enum ExecutionMode {
+    /**
+     * On Spring Boot's application task executor, a platform thread pool unless
+     * spring.threads.virtual.enabled is set.
+     */
+    PLATFORM,
+    /**
+     * On a new virtual thread per request.
+     */
+    VIRTUAL,
+    /**
+     * On the servlet container thread that accepted the request, without a thread hop.
+     * Meant to be combined with spring.threads.virtual.enabled so that Tomcat itself
+     * serves requests on virtual threads.
+     */
+    INLINE
+}
@@ -0,0 +1,23 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.metrics.JdbcStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the SQL statement counter into Hibernate. Endpoint latency ({@code http.server.requests}),
+ * repository latency ({@code spring.data.repository.invocations}) and connection pool wait time
+ * ({@code hikaricp.connections.acquire}) are recorded by Spring Boot; their histograms are enabled
+ * in application.yml.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new JdbcStatementCounter());
+    }
+}
@@ -0,0 +1,35 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndexLoader;
+import com.telco.phonenumberservice.repository.shard.ShardRouter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+/**
+ * Enables the in-memory {@link PhoneNumberIndex}. It is loaded before the application starts
+ * serving requests and is only kept in sync with writes made through this service, so it
+ * should only be enabled when this service owns the phone_number table.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "phone-number-service.index", name = "enabled", havingValue = "true")
+public class PhoneNumberIndexConfig {
+
+    @Bean
+    public PhoneNumberIndex phoneNumberIndex() {
+        return new PhoneNumberIndex();
+    }
+
+    /**
+     * Spring Boot runs Flyway before any JdbcTemplate is handed out, so the first load sees the migrated schema.
+     */
+    @Bean(initMethod = "reload")
+    public PhoneNumberIndexLoader phoneNumberIndexLoader(JdbcTemplate jdbcTemplate, PhoneNumberIndex phoneNumberIndex,
+                                                         Optional<ShardRouter> shardRouter) {
+        return new PhoneNumberIndexLoader(jdbcTemplate, phoneNumberIndex, shardRouter);
+    }
+}
@@ -0,0 +1,113 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.datasource.PrimaryPinning;
+import com.telco.phonenumberservice.datasource.PrimaryPinningInterceptor;
+import com.telco.phonenumberservice.datasource.PrimaryReadAspect;
+import com.telco.phonenumberservice.datasource.ReplicaBalancing;
+import com.telco.phonenumberservice.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to replicas and everything else to the primary.
+ *
+ * The primary is the spring.datasource pool. Every replica URL gets a pool of its own, with the
+ * settings of the primary pool. The application DataSource hands out connections lazily, once the
+ * transaction has marked them read-only or not, so the service methods and repositories that
+ * already run in read-only transactions read from the replicas without any change, while writes,
+ * Flyway and the PhoneNumberIndex loader use the primary. See {@link PrimaryPinning} for how
+ * callers read their own writes, and {@link PrimaryReadAspect} for the lists served with an ETag,
+ * which are read from the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "phone-number-service.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public PrimaryPinning primaryPinning(
+            @Value("${phone-number-service.replicas.pin-after-write:PT5S}") Duration pinAfterWrite
+    ) {
+        return new PrimaryPinning(pinAfterWrite);
+    }
+
+    @Bean
+    public PrimaryReadAspect primaryReadAspect(PrimaryPinning primaryPinning) {
+        return new PrimaryReadAspect(primaryPinning);
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(
+            HikariDataSource primaryDataSource,
+            PrimaryPinning primaryPinning,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${phone-number-service.replicas.urls:}") List<String> urls,
+            @Value("${phone-number-service.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${phone-number-service.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${phone-number-service.replicas.balancing:ROUND_ROBIN}") ReplicaBalancing balancing
+    ) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(url);
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setPoolName("replica-" + replicas.size());
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, balancing, primaryPinning);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public WebMvcConfigurer primaryPinningWebMvcConfigurer(PrimaryPinning primaryPinning) {
+        PrimaryPinningInterceptor interceptor = new PrimaryPinningInterceptor(primaryPinning);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(interceptor);
+            }
+        };
+    }
+}
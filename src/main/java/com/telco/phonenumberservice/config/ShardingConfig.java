@@ -0,0 +1,109 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.repository.shard.CountryCodeShardRouter;
+import com.telco.phonenumberservice.repository.shard.CustomerShardDirectory;
+import com.telco.phonenumberservice.repository.shard.ShardRouter;
+import com.telco.phonenumberservice.repository.shard.ShardRoutingAspect;
+import com.telco.phonenumberservice.repository.shard.ShardRoutingDataSource;
+import com.telco.phonenumberservice.repository.shard.ShardedFlywayMigrationStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the phone_number table over several databases by the country code of the numbers.
+ *
+ * Every URL in phone-number-service.sharding.urls is a shard with a pool of its own, configured
+ * like the spring.datasource pool. phone-number-service.sharding.country-codes maps country codes
+ * to shards as {@code code=shard}; all other numbers live on the default shard. The customer table
+ * is kept on every shard. PhoneNumberService calls are routed by {@link ShardRoutingAspect}, and
+ * Flyway migrates every shard before the application starts.
+ *
+ * Sharding cannot be combined with read replicas.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "phone-number-service.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    public ShardingConfig(@Value("${phone-number-service.replicas.enabled:false}") boolean replicasEnabled) {
+        if (replicasEnabled) {
+            throw new IllegalStateException("phone-number-service.sharding and phone-number-service.replicas cannot both be enabled");
+        }
+    }
+
+    @Bean
+    public ShardRouter shardRouter(
+            @Value("${phone-number-service.sharding.urls}") List<String> urls,
+            @Value("${phone-number-service.sharding.country-codes:}") List<String> countryCodes,
+            @Value("${phone-number-service.sharding.default-shard:0}") int defaultShard
+    ) {
+        Map<String, Integer> countryCodeShards = new HashMap<>();
+        for (String countryCode : countryCodes) {
+            String[] codeAndShard = countryCode.split("=");
+            if (codeAndShard.length != 2) {
+                throw new IllegalArgumentException("Expected code=shard in phone-number-service.sharding.country-codes: " + countryCode);
+            }
+            countryCodeShards.put(codeAndShard[0].trim(), Integer.parseInt(codeAndShard[1].trim()));
+        }
+        return new CountryCodeShardRouter(urls.size(), countryCodeShards, defaultShard);
+    }
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(
+            DataSourceProperties dataSourceProperties,
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${phone-number-service.sharding.urls}") List<String> urls,
+            @Value("${phone-number-service.sharding.default-shard:0}") int defaultShard
+    ) {
+        List<HikariDataSource> shards = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource shard = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + shards.size());
+            meterRegistry.ifAvailable(registry -> shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards, defaultShard);
+    }
+
+    @Bean
+    public CustomerShardDirectory customerShardDirectory(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        return new CustomerShardDirectory(jdbcTemplate, shardRouter);
+    }
+
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter, CustomerShardDirectory customerShardDirectory) {
+        return new ShardRoutingAspect(shardRouter, customerShardDirectory);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(
+            ShardRoutingDataSource dataSource,
+            ShardRouter shardRouter,
+            @Value("${phone-number-service.sharding.prune-misplaced-numbers:false}") boolean pruneMisplacedNumbers
+    ) {
+        return new ShardedFlywayMigrationStrategy(dataSource, shardRouter, pruneMisplacedNumbers);
+    }
+}
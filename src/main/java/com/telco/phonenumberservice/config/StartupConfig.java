@@ -0,0 +1,31 @@
+package com.telco.phonenumberservice.config;
+
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndexLoader;
+import com.telco.phonenumberservice.service.ActivationPipeline;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Beans that are still created at startup when spring.main.lazy-initialization is enabled
+ * (the lazy profile). Loading the PhoneNumberIndex and starting the activation workers on the
+ * first request would make that request slow and leave their metrics unregistered until then.
+ * With the AOT initializers, the feature switches are checked against the build, see {@link AotSwitchesCheck}.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerPhoneNumberServiceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(PhoneNumberIndexLoader.class, ActivationPipeline.class,
+                AotSwitchesCheck.class);
+    }
+
+    @Bean
+    public AotSwitchesCheck aotSwitchesCheck(ListableBeanFactory beanFactory, Environment environment) {
+        return new AotSwitchesCheck(beanFactory, environment, AotDetector.useGeneratedArtifacts());
+    }
+}
@@ -0,0 +1,63 @@
+package com.telco.phonenumberservice.controller;
+
+import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.service.ActivationPipeline;
+import com.telco.phonenumberservice.service.ActivationRequestDto;
+import com.telco.phonenumberservice.validation.ValidPhoneNumber;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Asynchronous activation endpoints, available when the activation pipeline is enabled.
+ * Activations are accepted with 202 and applied in the background; the returned Location is polled for the outcome.
+ */
+@Slf4j
+@Validated
+@RequiredArgsConstructor
+@RestController
+@ConditionalOnProperty(prefix = "phone-number-service.activation-pipeline", name = "enabled", havingValue = "true")
+public class ActivationRequestController {
+
+    private final ActivationPipeline activationPipeline;
+
+    @PostMapping(value = "/v{version}/phone-numbers/{phoneNumber}/activation-requests",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivationRequestDto> requestActivation(
+            @PathVariable(name = "version") final String version,
+            @PathVariable(name = "phoneNumber")
+            @Size(max = 20, message = "Phone number must be at most 20 characters")
+            @ValidPhoneNumber
+            final String phoneNumber,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Queueing phone number activation");
+        ActivationRequestDto activationRequest = activationPipeline.submit(phoneNumber);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/v{version}/activation-requests/{requestId}")
+                        .buildAndExpand(version, activationRequest.getRequestId())
+                        .toUri())
+                .body(activationRequest);
+    }
+
+    @GetMapping(value = "/v{version}/activation-requests/{requestId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivationRequestDto> getActivationRequest(
+            @PathVariable(name = "requestId")
+            @Size(max = 36, message = "requestId must be at most 36 characters")
+            final String requestId,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Fetching activation request");
+        return activationPipeline.getRequest(requestId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new NotFoundException(NotFoundException.ACTIVATION_REQUEST_NOT_FOUND));
+    }
+}
@@ -0,0 +1,99 @@
+package com.telco.phonenumberservice.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compact application/cbor encoding of a phone number list.
+ *
+ * The list is one indefinite-length CBOR array, so it can be written while the numbers are read.
+ * Each number made of an optional '+' and up to 15 digits is packed as by
+ * {@link PhoneNumberIndex#pack(CharSequence)} and written as a CBOR integer holding the difference
+ * to the previous packed number (to 0 for the first one). CBOR integers take 1 to 9 bytes depending
+ * on their magnitude, so the neighbouring numbers of a sorted list mostly take 1 to 5 bytes each,
+ * against 15 for a quoted number and its comma in JSON. Any other number is written as a CBOR text
+ * string and leaves the previous packed number unchanged.
+ */
+public final class PhoneNumberCborEncoding {
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private PhoneNumberCborEncoding() {
+    }
+
+    /**
+     * Starts a list on the output stream. Close the writer to end the list.
+     */
+    public static Writer writer(OutputStream outputStream) throws IOException {
+        CBORGenerator generator = CBOR_FACTORY.createGenerator(outputStream);
+        generator.writeStartArray();
+        return new Writer(generator);
+    }
+
+    /**
+     * Reads a list written by {@link #writer(OutputStream)}, for clients and tests.
+     */
+    public static List<String> decode(byte[] cbor) throws IOException {
+        List<String> phoneNumbers = new ArrayList<>();
+        try (JsonParser parser = CBOR_FACTORY.createParser(cbor)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a CBOR array");
+            }
+            long previous = 0;
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    previous += parser.getLongValue();
+                    phoneNumbers.add(PhoneNumberIndex.unpack(previous));
+                } else if (token == JsonToken.VALUE_STRING) {
+                    phoneNumbers.add(parser.getText());
+                } else {
+                    throw new IOException("Unexpected CBOR item " + token);
+                }
+            }
+        }
+        return phoneNumbers;
+    }
+
+    public static final class Writer implements Consumer<String>, Closeable {
+
+        private final CBORGenerator generator;
+
+        private long previous;
+
+        private Writer(CBORGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void accept(String phoneNumber) {
+            long packed = PhoneNumberIndex.pack(phoneNumber);
+            try {
+                if (packed == PhoneNumberIndex.NOT_PACKABLE) {
+                    generator.writeString(phoneNumber);
+                } else {
+                    generator.writeNumber(packed - previous);
+                    previous = packed;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.telco.phonenumberservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telco.phonenumberservice.service.BatchActivationRequestDto;
+import com.telco.phonenumberservice.service.BatchActivationResponseDto;
+import com.telco.phonenumberservice.service.PhoneNumberPageDto;
 import com.telco.phonenumberservice.service.PhoneNumberResponseDto;
 import com.telco.phonenumberservice.service.PhoneNumberService;
+import com.telco.phonenumberservice.validation.ValidPhoneNumber;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
@@ -12,9 +21,14 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 @Slf4j
 @Validated
@@ -22,14 +36,85 @@ import java.util.concurrent.Callable;
 @RestController
 public class PhoneNumberController {
 
+    /**
+     * Representations of the list of all phone numbers. Each has its own ETag suffix,
+     * as the ETag of one representation must never match another.
+     */
+    private enum ListFormat {
+        JSON(MediaType.APPLICATION_JSON, ""),
+        NDJSON(MediaType.APPLICATION_NDJSON, "-ndjson"),
+        CBOR(MediaType.APPLICATION_CBOR, "-cbor");
+
+        private final MediaType mediaType;
+
+        private final String eTagSuffix;
+
+        ListFormat(MediaType mediaType, String eTagSuffix) {
+            this.mediaType = mediaType;
+            this.eTagSuffix = eTagSuffix;
+        }
+    }
+
     private final PhoneNumberService phoneNumberService;
 
-    @GetMapping(value = "/v{version}/phoneNumbers", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Callable<ResponseEntity<List<String>>> getAllPhoneNumbers(
+    private final ObjectMapper objectMapper;
+
+    @GetMapping(value = "/v{version}/phoneNumbers",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                    MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllPhoneNumbers(
+            @RequestParam(name = "prefix", required = false)
+            @Pattern(regexp = "^[+]?\\d{1,15}$", message = "prefix must be an optional + followed by 1 to 15 digits")
+            final String prefix,
+            @RequestParam(name = "active", required = false)
+            final Boolean active,
             @RequestHeader final HttpHeaders httpHeaders
             ) {
-        log.info("Fetching all phone numbers");
-        return () -> new ResponseEntity<>(phoneNumberService.getAllPhoneNumbers(), HttpStatus.OK);
+        log.debug("Fetching all phone numbers");
+        ListFormat format = listFormat(httpHeaders);
+        String eTag = eTag(phoneNumberService.getPhoneNumbersVersion() + format.eTagSuffix);
+        if (isNotModified(httpHeaders, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.mediaType)
+                .body(outputStream -> {
+                    switch (format) {
+                        case NDJSON -> writeNdjson(outputStream, prefix, active);
+                        case CBOR -> writeCbor(outputStream, prefix, active);
+                        case JSON -> writeJsonArray(outputStream, prefix, active);
+                    }
+                });
+    }
+
+    @GetMapping(value = "/v{version}/phoneNumbers", params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Callable<ResponseEntity<PhoneNumberPageDto>> getPhoneNumbersPage(
+            @RequestParam(name = "prefix", required = false)
+            @Pattern(regexp = "^[+]?\\d{1,15}$", message = "prefix must be an optional + followed by 1 to 15 digits")
+            final String prefix,
+            @RequestParam(name = "active", required = false)
+            final Boolean active,
+            @RequestParam(name = "after", required = false)
+            @Size(max = 20, message = "after must be at most 20 characters")
+            final String after,
+            @RequestParam(name = "limit")
+            @Min(value = 1, message = "limit must be at least 1")
+            @Max(value = 1000, message = "limit must be at most 1000")
+            final int limit,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Fetching page of phone numbers");
+        String eTag = eTag(phoneNumberService.getPhoneNumbersVersion());
+        if (isNotModified(httpHeaders, eTag)) {
+            return () -> notModified(eTag);
+        }
+        return () -> ResponseEntity.ok()
+                .eTag(eTag)
+                .body(prefix == null && active == null
+                        ? phoneNumberService.getPhoneNumbersPage(after, limit)
+                        : phoneNumberService.searchPhoneNumbersPage(prefix, active, after, limit));
     }
 
     @GetMapping(value = "/v{version}/customers/{customerId}/phone-numbers", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,24 +125,126 @@ public class PhoneNumberController {
             String customerId,
             @RequestHeader final HttpHeaders httpHeaders
     ) {
-        log.info("Fetching phone numbers by customerId");
-        return () -> ResponseEntity.ok(phoneNumberService.getAllPhoneNumbersByCustomer(customerId));
+        log.debug("Fetching phone numbers by customerId");
+        String eTag = eTag(phoneNumberService.getCustomerPhoneNumbersVersion(customerId));
+        if (isNotModified(httpHeaders, eTag)) {
+            return () -> notModified(eTag);
+        }
+        return () -> ResponseEntity.ok()
+                .eTag(eTag)
+                .body(phoneNumberService.getAllPhoneNumbersByCustomer(customerId));
     }
 
     @PatchMapping(value = "/v{version}/phone-numbers/{phoneNumber}/activate", produces = MediaType.APPLICATION_JSON_VALUE)
     public Callable<ResponseEntity<PhoneNumberResponseDto>> activatePhoneNumber(
             @PathVariable(name = "phoneNumber")
             @Size(max = 20, message = "Phone number must be at most 20 characters")
-            @Pattern(
-                    regexp = "^[+]?\\d{1,3}?[- .()]?\\d+([- .()]?\\d+)*$",
-                    message = "Invalid phone number format"
-            )
+            @ValidPhoneNumber
             final String phoneNumber,
             @RequestHeader final HttpHeaders httpHeaders
     ) {
-        log.info("Activating phone number");
+        log.debug("Activating phone number");
         return () -> ResponseEntity.ok(phoneNumberService.activatePhoneNumber(phoneNumber));
     }
 
+    @PostMapping(value = "/v{version}/phone-numbers:batchActivate",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Callable<ResponseEntity<BatchActivationResponseDto>> activatePhoneNumbers(
+            @RequestBody @Valid final BatchActivationRequestDto batchActivationRequest,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.debug("Activating batch of phone numbers");
+        return () -> ResponseEntity.ok(phoneNumberService.activatePhoneNumbers(batchActivationRequest.getPhoneNumbers()));
+    }
+
+    /**
+     * Builds a weak ETag: the version identifies the list, not the bytes of one content coding,
+     * so a gzipped and an identity response may share it and Tomcat still compresses them.
+     */
+    private static String eTag(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Compares the If-None-Match header with the current ETag, using the weak comparison
+     * that RFC 9110 requires for If-None-Match.
+     */
+    private static boolean isNotModified(HttpHeaders httpHeaders, String eTag) {
+        String opaqueTag = opaqueTag(eTag);
+        for (String ifNoneMatch : httpHeaders.getIfNoneMatch()) {
+            if (ifNoneMatch.equals("*") || opaqueTag(ifNoneMatch).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .build();
+    }
+
+    /**
+     * Picks the first accepted representation; anything compatible with JSON, including a missing
+     * Accept header, gets the JSON array.
+     */
+    private static ListFormat listFormat(HttpHeaders httpHeaders) {
+        for (MediaType mediaType : httpHeaders.getAccept()) {
+            if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mediaType)) {
+                return ListFormat.NDJSON;
+            }
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return ListFormat.CBOR;
+            }
+            if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return ListFormat.JSON;
+            }
+        }
+        return ListFormat.JSON;
+    }
+
+    private void writeJsonArray(OutputStream outputStream, String prefix, Boolean active) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            streamPhoneNumbers(prefix, active, phoneNumber -> writeString(generator, phoneNumber, false));
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeNdjson(OutputStream outputStream, String prefix, Boolean active) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            streamPhoneNumbers(prefix, active, phoneNumber -> writeString(generator, phoneNumber, true));
+        }
+    }
+
+    private void writeCbor(OutputStream outputStream, String prefix, Boolean active) throws IOException {
+        try (PhoneNumberCborEncoding.Writer writer = PhoneNumberCborEncoding.writer(outputStream)) {
+            streamPhoneNumbers(prefix, active, writer);
+        }
+    }
+
+    private void streamPhoneNumbers(String prefix, Boolean active, Consumer<String> consumer) {
+        if (prefix == null && active == null) {
+            phoneNumberService.streamAllPhoneNumbers(consumer);
+        } else {
+            phoneNumberService.streamPhoneNumbers(prefix, active, consumer);
+        }
+    }
 
+    private static void writeString(JsonGenerator generator, String phoneNumber, boolean newLine) {
+        try {
+            generator.writeString(phoneNumber);
+            if (newLine) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.telco.phonenumberservice.controller;
+
+import com.telco.phonenumberservice.service.PhoneNumberImportResultDto;
+import com.telco.phonenumberservice.service.PhoneNumberInventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+public class PhoneNumberInventoryController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private final PhoneNumberInventoryService phoneNumberInventoryService;
+
+    @PostMapping(value = "/v{version}/phone-numbers:import",
+            consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Callable<ResponseEntity<PhoneNumberImportResultDto>> importPhoneNumbers(
+            final InputStream csv,
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.info("Importing phone numbers");
+        return () -> ResponseEntity.ok(phoneNumberInventoryService.importCsv(csv));
+    }
+
+    @GetMapping(value = "/v{version}/phone-numbers:export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPhoneNumbers(
+            @RequestHeader final HttpHeaders httpHeaders
+    ) {
+        log.info("Exporting phone numbers");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"phone-numbers.csv\"")
+                .body(outputStream -> {
+                    Writer writer = new BufferedWriter(
+                            new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+                    phoneNumberInventoryService.exportCsv(writer);
+                    writer.flush();
+                });
+    }
+}
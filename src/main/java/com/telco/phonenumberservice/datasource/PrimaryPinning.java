@@ -0,0 +1,84 @@
+package com.telco.phonenumberservice.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Sends the reads of a caller to the primary for a while after the caller wrote, so that it
+ * reads its own writes even while the replicas lag behind.
+ *
+ * The caller of the current request is bound to the thread serving it by
+ * {@link PrimaryPinningInterceptor}. Every committed read-write transaction pins that caller
+ * for the pin duration; Spring Boot registers this listener with the transaction manager.
+ * Writes made without a caller, such as batched activations and imports, pin nobody.
+ *
+ * Reads that must not be older than the versions of PhoneNumberVersions go to the primary for
+ * every caller, see {@link PrimaryReadAspect}.
+ */
+public class PrimaryPinning implements TransactionExecutionListener {
+
+    private static final long MAX_PINNED_CALLERS = 100_000;
+
+    private final ThreadLocal<String> caller = new ThreadLocal<>();
+
+    private final ThreadLocal<Boolean> primaryRead = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> pinnedCallers;
+
+    public PrimaryPinning(Duration pinDuration) {
+        this.pinnedCallers = Caffeine.newBuilder()
+                .expireAfterWrite(pinDuration)
+                .maximumSize(MAX_PINNED_CALLERS)
+                .build();
+    }
+
+    public void bind(String callerId) {
+        caller.set(callerId);
+    }
+
+    public void unbind() {
+        caller.remove();
+    }
+
+    /**
+     * Sends the reads of this thread to the primary until {@link #endPrimaryRead} is called with the
+     * returned value.
+     */
+    public Boolean beginPrimaryRead() {
+        Boolean previous = primaryRead.get();
+        primaryRead.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public void endPrimaryRead(Boolean previous) {
+        if (previous == null) {
+            primaryRead.remove();
+        } else {
+            primaryRead.set(previous);
+        }
+    }
+
+    /**
+     * Returns whether this thread is in a primary read, or the caller bound to it wrote within the pin duration.
+     */
+    public boolean isPinned() {
+        if (primaryRead.get() != null) {
+            return true;
+        }
+        String callerId = caller.get();
+        return callerId != null && pinnedCallers.getIfPresent(callerId) != null;
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        String callerId = caller.get();
+        if (callerId != null && commitFailure == null && !transaction.isReadOnly()) {
+            pinnedCallers.put(callerId, Boolean.TRUE);
+        }
+    }
+}
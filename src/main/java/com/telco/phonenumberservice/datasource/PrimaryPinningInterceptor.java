@@ -0,0 +1,66 @@
+package com.telco.phonenumberservice.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Binds the caller of a request to the threads that serve it, both the request thread and the
+ * thread that runs a Callable or streaming controller result, for {@link PrimaryPinning}.
+ *
+ * Callers are told apart by the {@value #CLIENT_ID_HEADER} header, or by their address when they
+ * do not send it.
+ */
+public class PrimaryPinningInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    private final PrimaryPinning primaryPinning;
+
+    public PrimaryPinningInterceptor(PrimaryPinning primaryPinning) {
+        this.primaryPinning = primaryPinning;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        primaryPinning.bind(callerId(request));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        primaryPinning.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        primaryPinning.unbind();
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+        if (servletRequest != null) {
+            primaryPinning.bind(callerId(servletRequest));
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        primaryPinning.unbind();
+    }
+
+    private static String callerId(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId == null || clientId.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return clientId.length() > MAX_CLIENT_ID_LENGTH ? clientId.substring(0, MAX_CLIENT_ID_LENGTH) : clientId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.telco.phonenumberservice.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Reads the phone number lists that are served with an ETag from the primary.
+ *
+ * The ETag is the version of the list in PhoneNumberVersions, which changes as soon as a write has
+ * committed on the primary. A replica that lags behind would return the list as it was before that
+ * write under the new version, and clients, the customer list cache and coalesced reads would keep
+ * that stale list until the next write. Exports and the other read-only transactions still go to the replicas.
+ *
+ * The advice runs inside the cache and coalescing advice, so only reads that reach the database are
+ * routed, and outside the transaction advice, so the transaction starts on the primary.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class PrimaryReadAspect {
+
+    private static final String SERVICE = "com.telco.phonenumberservice.service.PhoneNumberService";
+
+    private final PrimaryPinning primaryPinning;
+
+    public PrimaryReadAspect(PrimaryPinning primaryPinning) {
+        this.primaryPinning = primaryPinning;
+    }
+
+    @Around("execution(* " + SERVICE + ".getAllPhoneNumbersByCustomer(..))"
+            + " || execution(* " + SERVICE + ".getPhoneNumbersPage(..))"
+            + " || execution(* " + SERVICE + ".searchPhoneNumbersPage(..))"
+            + " || execution(* " + SERVICE + ".streamAllPhoneNumbers(..))"
+            + " || execution(* " + SERVICE + ".streamPhoneNumbers(..))")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean previous = primaryPinning.beginPrimaryRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            primaryPinning.endPrimaryRead(previous);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.telco.phonenumberservice.datasource;
+
+/**
+ * How {@link ReplicaDataSource} spreads read-only transactions over the replicas.
+ */
+public enum ReplicaBalancing {
+
+    /**
+     * Each replica in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The replica whose pool has the fewest connections in use, taking turns on ties.
+     */
+    LEAST_CONNECTIONS
+}
@@ -0,0 +1,90 @@
+package com.telco.phonenumberservice.datasource;
+
+import com.telco.phonenumberservice.logging.SamplingTurboFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out replica connections for read-only transactions.
+ *
+ * Each replica has its own connection pool, picked according to the {@link ReplicaBalancing}.
+ * Callers pinned by {@link PrimaryPinning} get a primary connection instead, and so does
+ * everyone while a replica cannot hand out a connection, so reads keep working when a
+ * replica is down. The warning for an unavailable replica is sampled, as it comes with every read.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+
+    private final List<HikariDataSource> replicas;
+
+    private final ReplicaBalancing balancing;
+
+    private final PrimaryPinning primaryPinning;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas,
+                             ReplicaBalancing balancing, PrimaryPinning primaryPinning) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+        this.primaryPinning = primaryPinning;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || primaryPinning.isPinned()) {
+            return primary.getConnection();
+        }
+        HikariDataSource replica = select();
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            log.warn(SamplingTurboFilter.SAMPLED, "Reading from the primary, replica {} is unavailable: {}", replica.getPoolName(), e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    HikariDataSource select() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (balancing == ReplicaBalancing.ROUND_ROBIN) {
+            return replicas.get(start);
+        }
+        HikariDataSource leastBusy = null;
+        int fewestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = replicas.get((start + i) % replicas.size());
+            int active = activeConnections(replica);
+            if (active < fewestActive) {
+                leastBusy = replica;
+                fewestActive = active;
+            }
+        }
+        return leastBusy;
+    }
+
+    private static int activeConnections(HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+}
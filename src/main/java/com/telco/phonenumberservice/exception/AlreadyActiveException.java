@@ -0,0 +1,10 @@
+package com.telco.phonenumberservice.exception;
+
+public class AlreadyActiveException extends IllegalStateException {
+
+    public static final String ALREADY_ACTIVE = "Phone number is already activated";
+
+    public AlreadyActiveException(String exceptionMessage) {
+        super(exceptionMessage);
+    }
+}
@@ -2,17 +2,19 @@ package com.telco.phonenumberservice.exception;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
-import lombok.Getter;
-import lombok.Setter;
+import lombok.Value;
 import org.springframework.http.HttpStatus;
 
+/**
+ * The body of an error response. Immutable, as the exception handlers share one instance between
+ * every response with the same fixed message.
+ */
 @Builder
-@Getter
-@Setter
+@Value
 public class ApiError {
-    private String errorId;
-    private String errorMessage;
-    private String informationLink;
+    String errorId;
+    String errorMessage;
+    String informationLink;
 
     @JsonIgnore
     HttpStatus httpStatus;
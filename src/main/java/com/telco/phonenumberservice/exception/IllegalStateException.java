@@ -1,7 +1,13 @@
 package com.telco.phonenumberservice.exception;
 
+/**
+ * A request that cannot be served as it is. This is an expected outcome, so no stack trace is filled in.
+ */
 public class IllegalStateException extends RuntimeException {
+
+    public static final String INVALID_PHONE_NUMBER = "Invalid phone number format";
+
     public IllegalStateException(String exceptionMessage) {
-        super(exceptionMessage);
+        super(exceptionMessage, null, false, false);
     }
 }
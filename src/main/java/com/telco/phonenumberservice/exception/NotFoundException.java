@@ -1,7 +1,17 @@
 package com.telco.phonenumberservice.exception;
 
+/**
+ * A requested resource does not exist. This is an expected outcome, so no stack trace is filled in.
+ */
 public class NotFoundException extends RuntimeException {
+
+    public static final String PHONE_NUMBER_NOT_FOUND = "Phone Number not found.";
+
+    public static final String NO_PHONE_NUMBERS = "No phone numbers linked to this customer";
+
+    public static final String ACTIVATION_REQUEST_NOT_FOUND = "Activation request not found.";
+
     public NotFoundException(String exceptionMessage) {
-        super(exceptionMessage);
+        super(exceptionMessage, null, false, false);
     }
 }
@@ -1,48 +1,90 @@
 package com.telco.phonenumberservice.exception;
 
-import jakarta.servlet.http.HttpServletRequest;
+import com.telco.phonenumberservice.logging.SamplingTurboFilter;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.UnexpectedTypeException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns exceptions into error responses.
+ *
+ * Not found and bad request are expected outcomes of client input, so they are logged at debug, and
+ * the responses for the fixed messages of the service are built once and shared; they are never
+ * modified. Rejections under overload are logged at warn, sampled by {@link SamplingTurboFilter},
+ * since they come in bursts. Only unexpected exceptions are logged at error, with their stack trace.
+ */
 @Slf4j
 @RestControllerAdvice(annotations = RestController.class)
 public class PhoneNumberServiceExceptionHandler {
 
+    private static final Map<String, ResponseEntity<ApiError>> NOT_FOUND_RESPONSES = preallocate(HttpStatus.NOT_FOUND,
+            NotFoundException.PHONE_NUMBER_NOT_FOUND, NotFoundException.NO_PHONE_NUMBERS,
+            NotFoundException.ACTIVATION_REQUEST_NOT_FOUND);
+
+    private static final Map<String, ResponseEntity<ApiError>> BAD_REQUEST_RESPONSES = preallocate(HttpStatus.BAD_REQUEST,
+            IllegalStateException.INVALID_PHONE_NUMBER, AlreadyActiveException.ALREADY_ACTIVE);
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiError> handleNotFoundException(Exception exception) {
-        log.error("Resource not found: {}", exception.getMessage());
+        log.debug("Resource not found: {}", exception.getMessage());
+
+        return response(HttpStatus.NOT_FOUND, exception.getMessage(), NOT_FOUND_RESPONSES);
+    }
+
+    @ExceptionHandler({IllegalStateException.class, ConstraintViolationException.class, UnexpectedTypeException.class,
+            MethodArgumentTypeMismatchException.class, MethodArgumentNotValidException.class,
+            HttpMessageNotReadableException.class})
+    public ResponseEntity<ApiError> handleIllegalStateException(Exception exception) {
+        log.debug("Bad Request: {}", exception.getMessage());
+
+        return response(HttpStatus.BAD_REQUEST, exception.getMessage(), BAD_REQUEST_RESPONSES);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailableException(ServiceUnavailableException exception) {
+        log.warn(SamplingTurboFilter.SAMPLED, "Service unavailable: {}", exception.getMessage());
 
         ApiError apiError = ApiError.builder()
-                .errorId(HttpStatus.NOT_FOUND.getReasonPhrase())
+                .errorId(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
                 .errorMessage(exception.getMessage())
-                .httpStatus(HttpStatus.NOT_FOUND)
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
                 .build();
 
-        return new ResponseEntity<>(apiError, apiError.getHttpStatus());
+        return ResponseEntity.status(apiError.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, exception.getRetryAfter().toSeconds())))
+                .body(apiError);
     }
 
-    @ExceptionHandler({IllegalStateException.class, ConstraintViolationException.class, UnexpectedTypeException.class})
-    public ResponseEntity<ApiError> handleIllegalStateException(Exception exception) {
-        log.error("Bad Request: {}", exception.getMessage());
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequestsException(TooManyRequestsException exception) {
+        log.warn(SamplingTurboFilter.SAMPLED, "Too many requests: {}", exception.getMessage());
 
         ApiError apiError = ApiError.builder()
-                .errorId(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .errorId(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
                 .errorMessage(exception.getMessage())
-                .httpStatus(HttpStatus.BAD_REQUEST)
+                .httpStatus(HttpStatus.TOO_MANY_REQUESTS)
                 .build();
 
-        return new ResponseEntity<>(apiError, apiError.getHttpStatus());
+        return ResponseEntity.status(apiError.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, exception.getRetryAfter().toSeconds())))
+                .body(apiError);
     }
 
     @ExceptionHandler({Exception.class})
     public ResponseEntity<ApiError> handleGenericException(Exception exception) {
-        log.error("Exception: {}", exception.getMessage());
+        log.error("Exception: {}", exception.getMessage(), exception);
 
         ApiError apiError = ApiError.builder()
                 .errorId(HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase())
@@ -52,4 +94,28 @@ public class PhoneNumberServiceExceptionHandler {
 
         return new ResponseEntity<>(apiError, apiError.getHttpStatus());
     }
+
+    private static ResponseEntity<ApiError> response(HttpStatus httpStatus, String errorMessage,
+                                                     Map<String, ResponseEntity<ApiError>> preallocated) {
+        ResponseEntity<ApiError> response = errorMessage == null ? null : preallocated.get(errorMessage);
+        return response != null ? response : newResponse(httpStatus, errorMessage);
+    }
+
+    private static Map<String, ResponseEntity<ApiError>> preallocate(HttpStatus httpStatus, String... errorMessages) {
+        Map<String, ResponseEntity<ApiError>> responses = new HashMap<>();
+        for (String errorMessage : errorMessages) {
+            responses.put(errorMessage, newResponse(httpStatus, errorMessage));
+        }
+        return Map.copyOf(responses);
+    }
+
+    private static ResponseEntity<ApiError> newResponse(HttpStatus httpStatus, String errorMessage) {
+        ApiError apiError = ApiError.builder()
+                .errorId(httpStatus.getReasonPhrase())
+                .errorMessage(errorMessage)
+                .httpStatus(httpStatus)
+                .build();
+
+        return new ResponseEntity<>(apiError, apiError.getHttpStatus());
+    }
 }
@@ -0,0 +1,16 @@
+package com.telco.phonenumberservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String exceptionMessage, Duration retryAfter) {
+        super(exceptionMessage, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,41 @@
+package com.telco.phonenumberservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through one in {@code oneIn} log events marked {@link #SAMPLED}, counted per message format,
+ * so a log statement on a hot path, such as a rejected request under overload, cannot flood the log.
+ * Events without the marker and events below the level of their logger are left alone.
+ *
+ * Registered in logback-spring.xml.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private final ConcurrentHashMap<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    private int oneIn = 100;
+
+    public void setOneIn(int oneIn) {
+        this.oneIn = Math.max(1, oneIn);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || format == null || !isStarted() || !marker.contains(SAMPLED)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        long count = counts.computeIfAbsent(format, key -> new AtomicLong()).getAndIncrement();
+        return count % oneIn == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
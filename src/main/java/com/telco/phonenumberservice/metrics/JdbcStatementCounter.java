@@ -0,0 +1,47 @@
+package com.telco.phonenumberservice.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is open.
+ *
+ * Registered as Hibernate's statement inspector, so it sees every statement issued through JPA,
+ * including the ones Spring Data derives from repository methods. A JDBC batch counts once.
+ */
+public class JdbcStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] statements = STATEMENTS.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Opens a count on the current thread.
+     *
+     * @return false if a count is already open, in which case the statements go to that count
+     */
+    static boolean open() {
+        if (STATEMENTS.get() != null) {
+            return false;
+        }
+        STATEMENTS.set(new int[1]);
+        return true;
+    }
+
+    /**
+     * Closes the count opened on the current thread.
+     *
+     * @return the number of statements prepared since the count was opened
+     */
+    static int close() {
+        int[] statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? 0 : statements[0];
+    }
+}
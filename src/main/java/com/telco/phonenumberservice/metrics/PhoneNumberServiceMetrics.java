@@ -0,0 +1,80 @@
+package com.telco.phonenumberservice.metrics;
+
+import com.telco.phonenumberservice.exception.AlreadyActiveException;
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import com.telco.phonenumberservice.exception.NotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the latency and the number of SQL statements of every PhoneNumberService call.
+ *
+ * Latency goes to the {@code phone.number.service} timer, tagged with the method and its outcome
+ * (success, not-found, already-active, rejected or error), with a percentile histogram.
+ * The statements prepared during the call go to the {@code phone.number.service.statements} summary,
+ * so a method that starts issuing more queries per call shows up as a shift in its distribution.
+ * The advice runs outside the cache and transaction advice, so cache hits and commits are included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class PhoneNumberServiceMetrics {
+
+    static final String TIMER_NAME = "phone.number.service";
+
+    static final String STATEMENTS_NAME = "phone.number.service.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.telco.phonenumberservice.service.PhoneNumberService.*(..))"
+            + " && !execution(String com.telco.phonenumberservice.service.PhoneNumberService.*Version(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        boolean counting = JdbcStatementCounter.open();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            outcome = outcome(throwable);
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Latency of PhoneNumberService calls")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            if (counting) {
+                DistributionSummary.builder(STATEMENTS_NAME)
+                        .description("SQL statements prepared per PhoneNumberService call")
+                        .baseUnit("statements")
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .record(JdbcStatementCounter.close());
+            }
+        }
+    }
+
+    private static String outcome(Throwable throwable) {
+        if (throwable instanceof NotFoundException) {
+            return "not-found";
+        }
+        if (throwable instanceof AlreadyActiveException) {
+            return "already-active";
+        }
+        if (throwable instanceof IllegalStateException) {
+            return "rejected";
+        }
+        return "error";
+    }
+}
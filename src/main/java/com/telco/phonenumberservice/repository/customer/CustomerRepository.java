@@ -1,11 +1,23 @@
 package com.telco.phonenumberservice.repository.customer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
+@Transactional(readOnly = true)
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
-    boolean existsByCustomerId(String customerId);
+
+    /**
+     * Reads the numbers of a customer in one round trip.
+     * No rows means the customer does not exist; a single null row means the
+     * customer exists but has no phone numbers.
+     */
+    @Query("select p.number from Customer c left join PhoneNumber p on p.customer = c "
+            + "where c.customerId = :customerId order by p.number")
+    List<String> findPhoneNumbersByCustomerId(String customerId);
 }
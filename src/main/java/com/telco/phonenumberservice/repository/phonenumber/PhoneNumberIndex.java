@@ -0,0 +1,195 @@
+package com.telco.phonenumberservice.repository.phonenumber;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact in-memory index of every phone number and its activation status.
+ *
+ * Each number of at most 15 digits, with an optional leading '+', is packed into a long
+ * that keeps the digit count and the '+' so that leading zeros survive. The packed keys are
+ * held sorted in a primitive array and searched with a binary search; activation status is
+ * one bit per key. A lookup costs about 8 bytes plus one bit per number and allocates nothing,
+ * against several hundred bytes for a managed PhoneNumber entity.
+ *
+ * Numbers that cannot be packed make the index unable to answer for inputs that cannot be
+ * packed either; those lookups return {@link Status#UNKNOWN} and must go to the database.
+ */
+public final class PhoneNumberIndex {
+
+    public enum Status {
+        UNKNOWN,
+        NOT_FOUND,
+        INACTIVE,
+        ACTIVE
+    }
+
+    public static final long NOT_PACKABLE = -1L;
+
+    static final int MAX_DIGITS = 15;
+
+    private static final int DIGIT_COUNT_SHIFT = 50;
+    private static final long DIGIT_COUNT_MASK = 0xFL << DIGIT_COUNT_SHIFT;
+    private static final long PLUS_FLAG = 1L << 54;
+    private static final long VALUE_MASK = (1L << DIGIT_COUNT_SHIFT) - 1;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new AtomicLongArray(0), false);
+
+    private record Snapshot(long[] keys, AtomicLongArray activeBits, boolean hasUnpackableNumbers) {
+    }
+
+    /**
+     * Packs a phone number made of an optional '+' and 1 to 15 digits into a non-negative long.
+     *
+     * @return the packed number, or {@link #NOT_PACKABLE} if it has any other shape
+     */
+    public static long pack(CharSequence number) {
+        int length = number.length();
+        int start = 0;
+        long packed = 0;
+        if (length > 0 && number.charAt(0) == '+') {
+            start = 1;
+            packed = PLUS_FLAG;
+        }
+        int digitCount = length - start;
+        if (digitCount == 0 || digitCount > MAX_DIGITS) {
+            return NOT_PACKABLE;
+        }
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_PACKABLE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return packed | ((long) digitCount << DIGIT_COUNT_SHIFT) | value;
+    }
+
+    /**
+     * Restores the phone number packed by {@link #pack(CharSequence)}.
+     */
+    public static String unpack(long packed) {
+        int digitCount = (int) ((packed & DIGIT_COUNT_MASK) >>> DIGIT_COUNT_SHIFT);
+        boolean plus = (packed & PLUS_FLAG) != 0;
+        char[] chars = new char[digitCount + (plus ? 1 : 0)];
+        long value = packed & VALUE_MASK;
+        for (int i = chars.length - 1; i >= chars.length - digitCount; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        if (plus) {
+            chars[0] = '+';
+        }
+        return new String(chars);
+    }
+
+    public Status status(CharSequence number) {
+        Snapshot current = snapshot;
+        long key = pack(number);
+        if (key == NOT_PACKABLE) {
+            return current.hasUnpackableNumbers() ? Status.UNKNOWN : Status.NOT_FOUND;
+        }
+        int position = Arrays.binarySearch(current.keys(), key);
+        if (position < 0) {
+            return Status.NOT_FOUND;
+        }
+        return isActive(current.activeBits(), position) ? Status.ACTIVE : Status.INACTIVE;
+    }
+
+    /**
+     * Records that an indexed number has been activated.
+     *
+     * @return false if the number is not in the index
+     */
+    public boolean markActive(CharSequence number) {
+        Snapshot current = snapshot;
+        long key = pack(number);
+        int position = key == NOT_PACKABLE ? -1 : Arrays.binarySearch(current.keys(), key);
+        if (position < 0) {
+            return false;
+        }
+        long mask = 1L << position;
+        AtomicLongArray activeBits = current.activeBits();
+        int word = position >>> 6;
+        long bits = activeBits.get(word);
+        while ((bits & mask) == 0 && !activeBits.compareAndSet(word, bits, bits | mask)) {
+            bits = activeBits.get(word);
+        }
+        return true;
+    }
+
+    /**
+     * Atomically replaces the whole content of the index with what the builder collected.
+     */
+    public void replace(Builder builder) {
+        snapshot = builder.build();
+    }
+
+    public int size() {
+        return snapshot.keys().length;
+    }
+
+    /**
+     * Bytes held by the key array and the status bits.
+     */
+    public long memoryBytes() {
+        Snapshot current = snapshot;
+        return (long) current.keys().length * Long.BYTES + (long) current.activeBits().length() * Long.BYTES;
+    }
+
+    private static boolean isActive(AtomicLongArray activeBits, int position) {
+        return (activeBits.get(position >>> 6) & (1L << position)) != 0;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects numbers in any order; keys and status are sorted together when the index is built.
+     */
+    public static final class Builder {
+
+        private long[] entries = new long[1024];
+
+        private int size;
+
+        private boolean hasUnpackableNumbers;
+
+        private Builder() {
+        }
+
+        public Builder add(CharSequence number, boolean active) {
+            long key = pack(number);
+            if (key == NOT_PACKABLE) {
+                hasUnpackableNumbers = true;
+                return this;
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = key << 1 | (active ? 1 : 0);
+            return this;
+        }
+
+        private Snapshot build() {
+            long[] sorted = Arrays.copyOf(entries, size);
+            Arrays.sort(sorted);
+            long[] keys = new long[size];
+            AtomicLongArray activeBits = new AtomicLongArray((size + 63) >>> 6);
+            int count = 0;
+            for (long entry : sorted) {
+                long key = entry >>> 1;
+                if (count > 0 && keys[count - 1] == key) {
+                    continue;
+                }
+                if ((entry & 1) != 0) {
+                    activeBits.set(count >>> 6, activeBits.get(count >>> 6) | (1L << count));
+                }
+                keys[count++] = key;
+            }
+            return new Snapshot(count == size ? keys : Arrays.copyOf(keys, count), activeBits, hasUnpackableNumbers);
+        }
+    }
+}
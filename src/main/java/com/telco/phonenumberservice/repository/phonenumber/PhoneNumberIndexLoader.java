@@ -0,0 +1,61 @@
+package com.telco.phonenumberservice.repository.phonenumber;
+
+import com.telco.phonenumberservice.repository.shard.ShardContext;
+import com.telco.phonenumberservice.repository.shard.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Optional;
+
+/**
+ * Fills the {@link PhoneNumberIndex} from the phone_number table, reading it through a cursor,
+ * and from the phone_number table of every shard in turn when the table is sharded.
+ */
+@Slf4j
+public class PhoneNumberIndexLoader {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PhoneNumberIndex phoneNumberIndex;
+
+    private final Optional<ShardRouter> shardRouter;
+
+    public PhoneNumberIndexLoader(JdbcTemplate jdbcTemplate, PhoneNumberIndex phoneNumberIndex) {
+        this(jdbcTemplate, phoneNumberIndex, Optional.empty());
+    }
+
+    public PhoneNumberIndexLoader(JdbcTemplate jdbcTemplate, PhoneNumberIndex phoneNumberIndex,
+                                  Optional<ShardRouter> shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.phoneNumberIndex = phoneNumberIndex;
+        this.shardRouter = shardRouter;
+    }
+
+    public void reload() {
+        long start = System.nanoTime();
+        PhoneNumberIndex.Builder builder = PhoneNumberIndex.builder();
+        if (shardRouter.isEmpty()) {
+            load(builder);
+        } else {
+            for (int shard = 0; shard < shardRouter.get().shardCount(); shard++) {
+                ShardContext.run(shard, () -> load(builder));
+            }
+        }
+        phoneNumberIndex.replace(builder);
+        log.info("Loaded {} phone numbers into the index ({} bytes) in {} ms",
+                phoneNumberIndex.size(), phoneNumberIndex.memoryBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void load(PhoneNumberIndex.Builder builder) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT number, is_active FROM phone_number");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            builder.add(resultSet.getString(1), resultSet.getBoolean(2));
+        });
+    }
+}
@@ -1,15 +1,90 @@
 package com.telco.phonenumberservice.repository.phonenumber;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Query methods run in read-only transactions unless they write, so Hibernate skips dirty checking
+ * and flushing for them when they are called outside a service transaction.
+ */
 @Repository
+@Transactional(readOnly = true)
 public interface PhoneNumberRepository extends JpaRepository<PhoneNumber, UUID> {
     List<PhoneNumber> findByCustomer_CustomerId(String customerId);
 
     Optional<PhoneNumber> findByNumber(String number);
+
+    boolean existsByNumber(String number);
+
+    /**
+     * Loads and write-locks the given numbers, so a batch can flip their status
+     * without another transaction activating them in between.
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<PhoneNumber> findAllByNumberIn(Collection<String> numbers);
+
+    /**
+     * Activates the number only if it is currently inactive, in a single statement.
+     *
+     * @return 1 if the number was activated, 0 if it does not exist or is already active
+     */
+    @Transactional
+    @Modifying
+    @Query("update PhoneNumber p set p.isActive = true where p.number = :number and p.isActive = false")
+    int activateByNumber(String number);
+
+    /**
+     * Streams every phone number in number order without materializing entities.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.number from PhoneNumber p order by p.number")
+    Stream<String> streamAllNumbers();
+
+    @Query("select p.number from PhoneNumber p order by p.number")
+    List<String> findNumbers(Limit limit);
+
+    @Query("select p.number from PhoneNumber p where p.number > :after order by p.number")
+    List<String> findNumbersAfter(String after, Limit limit);
+
+    /**
+     * Reads the numbers in the range [from, to) that come after the cursor, in number order,
+     * optionally only those with the given status. Backed by a range scan of the unique index on number.
+     */
+    @Query("select p.number from PhoneNumber p where p.number >= :from and p.number < :to and p.number > :after "
+            + "and (:active is null or p.isActive = :active) order by p.number")
+    List<String> findNumbersInRange(String from, String to, String after, Boolean active, Limit limit);
+
+    /**
+     * Streams the numbers in the range [from, to) in number order, optionally only those with the given status.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.number from PhoneNumber p where p.number >= :from and p.number < :to "
+            + "and (:active is null or p.isActive = :active) order by p.number")
+    Stream<String> streamNumbersInRange(String from, String to, Boolean active);
 }
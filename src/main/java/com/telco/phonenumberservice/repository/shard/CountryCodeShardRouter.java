@@ -0,0 +1,97 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Places phone numbers by their E.164 country code.
+ *
+ * Country codes are one to three digits after the '+' and no code is the prefix of another,
+ * so at most one configured code matches a number. Numbers of other countries, and numbers
+ * without a '+', go to the default shard.
+ */
+public class CountryCodeShardRouter implements ShardRouter {
+
+    private static final int MAX_COUNTRY_CODE_DIGITS = 3;
+
+    private final int shardCount;
+
+    private final Map<String, Integer> countryCodeShards;
+
+    private final int defaultShard;
+
+    public CountryCodeShardRouter(int shardCount, Map<String, Integer> countryCodeShards, int defaultShard) {
+        if (defaultShard < 0 || defaultShard >= shardCount) {
+            throw new IllegalArgumentException("Default shard " + defaultShard + " does not exist");
+        }
+        countryCodeShards.forEach((countryCode, shard) -> {
+            if (shard < 0 || shard >= shardCount) {
+                throw new IllegalArgumentException("Shard " + shard + " of country code " + countryCode + " does not exist");
+            }
+        });
+        this.shardCount = shardCount;
+        this.countryCodeShards = Map.copyOf(countryCodeShards);
+        this.defaultShard = defaultShard;
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public int defaultShard() {
+        return defaultShard;
+    }
+
+    @Override
+    public int shardForNumber(String number) {
+        if (number.isEmpty() || number.charAt(0) != '+') {
+            return defaultShard;
+        }
+        for (int digits = 1; digits <= MAX_COUNTRY_CODE_DIGITS && digits < number.length(); digits++) {
+            Integer shard = countryCodeShards.get(number.substring(1, 1 + digits));
+            if (shard != null) {
+                return shard;
+            }
+        }
+        return defaultShard;
+    }
+
+    /**
+     * A prefix that contains a configured country code maps to its shard. A shorter '+' prefix maps to
+     * the shards of the codes it starts and to the default shard; a prefix without '+' only matches
+     * numbers that are not in E.164 form, which all live on the default shard.
+     */
+    @Override
+    public List<Integer> shardsForPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return allShards();
+        }
+        if (prefix.charAt(0) != '+') {
+            return List.of(defaultShard);
+        }
+        String digits = prefix.substring(1);
+        TreeSet<Integer> shards = new TreeSet<>();
+        shards.add(defaultShard);
+        for (Map.Entry<String, Integer> countryCode : countryCodeShards.entrySet()) {
+            if (digits.startsWith(countryCode.getKey())) {
+                return List.of(countryCode.getValue());
+            }
+            if (countryCode.getKey().startsWith(digits)) {
+                shards.add(countryCode.getValue());
+            }
+        }
+        return List.copyOf(shards);
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,63 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers which shards hold the phone numbers of a customer.
+ *
+ * A customer's numbers normally share a country and so live on a single home shard. The shards
+ * of a customer are found by asking every shard once, through the index on customer_id, and kept
+ * for a while; bulk writes that may move numbers between customers call {@link #invalidateAll}.
+ */
+public class CustomerShardDirectory {
+
+    private static final String HAS_PHONE_NUMBERS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM phone_number WHERE customer_id = ?)";
+
+    private static final long MAX_CUSTOMERS = 100_000;
+
+    private static final Duration RETENTION = Duration.ofMinutes(5);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShardRouter shardRouter;
+
+    private final Cache<String, List<Integer>> customerShards = Caffeine.newBuilder()
+            .maximumSize(MAX_CUSTOMERS)
+            .expireAfterWrite(RETENTION)
+            .build();
+
+    public CustomerShardDirectory(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Returns the shards that hold phone numbers of the customer, empty if none does.
+     */
+    public List<Integer> shardsOf(String customerId) {
+        return customerShards.get(customerId, this::findShards);
+    }
+
+    public void invalidateAll() {
+        customerShards.invalidateAll();
+    }
+
+    private List<Integer> findShards(String customerId) {
+        List<Integer> shards = new ArrayList<>(1);
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Boolean hasPhoneNumbers = ShardContext.call(shard,
+                    () -> jdbcTemplate.queryForObject(HAS_PHONE_NUMBERS_SQL, Boolean.class, customerId));
+            if (Boolean.TRUE.equals(hasPhoneNumbers)) {
+                shards.add(shard);
+            }
+        }
+        return List.copyOf(shards);
+    }
+}
@@ -0,0 +1,58 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard that the current thread reads and writes, used by {@link ShardRoutingDataSource}.
+ *
+ * A shard must be bound before the transaction that uses it starts, as the connection is taken
+ * when the transaction begins. Threads without a bound shard use the default shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the shard bound to this thread, or null if none is.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void run(int shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Binds a shard to this thread and returns the shard bound before, to be passed to {@link #restore}.
+     */
+    static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
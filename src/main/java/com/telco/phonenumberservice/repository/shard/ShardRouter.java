@@ -0,0 +1,29 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import java.util.List;
+
+/**
+ * Decides which shard holds a phone number. Every phone number lives on exactly one shard;
+ * the customer table is copied to every shard, so the foreign key holds on each of them.
+ */
+public interface ShardRouter {
+
+    int shardCount();
+
+    /**
+     * Returns the shard used when no other applies, such as for customers without phone numbers.
+     */
+    int defaultShard();
+
+    /**
+     * Returns the shard of a phone number in canonical form.
+     */
+    int shardForNumber(String number);
+
+    /**
+     * Returns the shards that may hold phone numbers starting with the prefix, in shard order.
+     *
+     * @param prefix the leading characters of the phone numbers, or null for every phone number
+     */
+    List<Integer> shardsForPrefix(String prefix);
+}
@@ -0,0 +1,303 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import com.telco.phonenumberservice.service.BatchActivationResponseDto;
+import com.telco.phonenumberservice.service.PhoneNumberActivationResultDto;
+import com.telco.phonenumberservice.service.PhoneNumberPageDto;
+import com.telco.phonenumberservice.validation.PhoneNumberNormalizer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs every PhoneNumberService call on the shards that hold its phone numbers.
+ *
+ * Calls about one phone number run on its shard. Calls that span shards run once per shard, in
+ * parallel on virtual threads, each in its own transaction, and their results are merged: streams
+ * through a k-way merge of the per-shard streams, so the merged stream stays in number order and
+ * memory stays bounded by {@link #MERGE_QUEUE_CAPACITY} numbers per shard; pages by merging the
+ * first page of every shard. A batch activation that spans shards commits on each shard separately.
+ *
+ * The advice runs inside the cache advice, so a customer list is cached once merged, and outside
+ * the transaction advice, so each transaction starts with its shard bound.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ShardRoutingAspect implements AutoCloseable {
+
+    private static final String SERVICE = "com.telco.phonenumberservice.service.PhoneNumberService";
+
+    private static final int MERGE_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Marks the end of a shard stream; compared by identity, so it cannot clash with a phone number.
+     */
+    private static final String END_OF_SHARD = new String("end of shard");
+
+    private final ShardRouter shardRouter;
+
+    private final CustomerShardDirectory customerShardDirectory;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardRoutingAspect(ShardRouter shardRouter, CustomerShardDirectory customerShardDirectory) {
+        this.shardRouter = shardRouter;
+        this.customerShardDirectory = customerShardDirectory;
+    }
+
+    @Around("execution(* " + SERVICE + ".activatePhoneNumber(String)) && args(rawPhoneNumber)")
+    public Object activatePhoneNumber(ProceedingJoinPoint joinPoint, String rawPhoneNumber) throws Throwable {
+        return proceedOn(shardOf(rawPhoneNumber), joinPoint, joinPoint.getArgs());
+    }
+
+    @Around("execution(* " + SERVICE + ".activatePhoneNumbers(java.util.List)) && args(phoneNumbers)")
+    public Object activatePhoneNumbers(ProceedingJoinPoint joinPoint, List<String> phoneNumbers) throws Throwable {
+        Map<Integer, List<String>> shardNumbers = new TreeMap<>();
+        for (String phoneNumber : phoneNumbers) {
+            shardNumbers.computeIfAbsent(shardOf(phoneNumber), shard -> new ArrayList<>()).add(phoneNumber);
+        }
+        if (shardNumbers.size() == 1) {
+            return proceedOn(shardNumbers.keySet().iterator().next(), joinPoint, joinPoint.getArgs());
+        }
+        List<BatchActivationResponseDto> shardResponses = scatter(List.copyOf(shardNumbers.keySet()), joinPoint,
+                shard -> new Object[]{shardNumbers.get(shard)});
+
+        Map<String, PhoneNumberActivationResultDto> results = new HashMap<>();
+        shardResponses.forEach(response -> response.getResults()
+                .forEach(result -> results.put(result.getPhoneNumber(), result)));
+        Set<String> requestedNumbers = new LinkedHashSet<>(phoneNumbers.size());
+        for (String phoneNumber : phoneNumbers) {
+            String canonicalNumber = PhoneNumberNormalizer.normalize(phoneNumber);
+            requestedNumbers.add(canonicalNumber != null ? canonicalNumber : phoneNumber);
+        }
+        return BatchActivationResponseDto.builder()
+                .results(requestedNumbers.stream().map(results::get).toList())
+                .build();
+    }
+
+    @Around("execution(* " + SERVICE + ".getAllPhoneNumbersByCustomer(String)) && args(customerId)")
+    public Object getAllPhoneNumbersByCustomer(ProceedingJoinPoint joinPoint, String customerId) throws Throwable {
+        List<Integer> shards = customerShardDirectory.shardsOf(customerId);
+        if (shards.size() <= 1) {
+            // The default shard tells an unknown customer apart from one without phone numbers
+            int shard = shards.isEmpty() ? shardRouter.defaultShard() : shards.get(0);
+            return proceedOn(shard, joinPoint, joinPoint.getArgs());
+        }
+        List<List<String>> shardLists = scatter(shards, joinPoint, shard -> joinPoint.getArgs());
+        return shardLists.stream().flatMap(List::stream).sorted().toList();
+    }
+
+    @Around("execution(* " + SERVICE + ".streamAllPhoneNumbers(java.util.function.Consumer)) && args(consumer)")
+    public Object streamAllPhoneNumbers(ProceedingJoinPoint joinPoint, Consumer<String> consumer) throws Throwable {
+        mergeStreams(shardRouter.shardsForPrefix(null), joinPoint, shardConsumer -> new Object[]{shardConsumer}, consumer);
+        return null;
+    }
+
+    @Around("execution(* " + SERVICE + ".streamPhoneNumbers(String, Boolean, java.util.function.Consumer))"
+            + " && args(prefix, active, consumer)")
+    public Object streamPhoneNumbers(ProceedingJoinPoint joinPoint, String prefix, Boolean active,
+                                     Consumer<String> consumer) throws Throwable {
+        mergeStreams(shardRouter.shardsForPrefix(prefix), joinPoint,
+                shardConsumer -> new Object[]{prefix, active, shardConsumer}, consumer);
+        return null;
+    }
+
+    @Around("execution(* " + SERVICE + ".getPhoneNumbersPage(String, int)) && args(after, limit)")
+    public Object getPhoneNumbersPage(ProceedingJoinPoint joinPoint, String after, int limit) throws Throwable {
+        return mergePages(shardRouter.shardsForPrefix(null), joinPoint, limit);
+    }
+
+    @Around("execution(* " + SERVICE + ".searchPhoneNumbersPage(String, Boolean, String, int))"
+            + " && args(prefix, active, after, limit)")
+    public Object searchPhoneNumbersPage(ProceedingJoinPoint joinPoint, String prefix, Boolean active,
+                                         String after, int limit) throws Throwable {
+        return mergePages(shardRouter.shardsForPrefix(prefix), joinPoint, limit);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Numbers that cannot be normalized are rejected or reported as not found by the service on any shard.
+     */
+    private int shardOf(String rawPhoneNumber) {
+        String phoneNumber = rawPhoneNumber == null ? null : PhoneNumberNormalizer.normalize(rawPhoneNumber);
+        return phoneNumber == null ? shardRouter.defaultShard() : shardRouter.shardForNumber(phoneNumber);
+    }
+
+    /**
+     * The first {@code limit} numbers after the cursor are among the first {@code limit} numbers after
+     * the cursor of every shard, so merging the first page of every shard gives the page.
+     */
+    private Object mergePages(List<Integer> shards, ProceedingJoinPoint joinPoint, int limit) throws Throwable {
+        if (shards.size() == 1) {
+            return proceedOn(shards.get(0), joinPoint, joinPoint.getArgs());
+        }
+        List<PhoneNumberPageDto> pages = scatter(shards, joinPoint, shard -> joinPoint.getArgs());
+        List<String> phoneNumbers = pages.stream()
+                .flatMap(page -> page.getPhoneNumbers().stream())
+                .sorted()
+                .toList();
+        boolean morePages = phoneNumbers.size() > limit || pages.stream().anyMatch(page -> page.getNextCursor() != null);
+        if (phoneNumbers.size() > limit) {
+            phoneNumbers = phoneNumbers.subList(0, limit);
+        }
+        return PhoneNumberPageDto.builder()
+                .phoneNumbers(phoneNumbers)
+                .nextCursor(morePages ? phoneNumbers.get(phoneNumbers.size() - 1) : null)
+                .build();
+    }
+
+    /**
+     * Streams every shard into a bounded queue on its own thread and hands the heads of the queues
+     * to the consumer in number order. A shard that fails fails the merge as soon as its stream ends;
+     * a consumer that fails cancels the shards that are still streaming.
+     */
+    private void mergeStreams(List<Integer> shards, ProceedingJoinPoint joinPoint,
+                              Function<Consumer<String>, Object[]> args, Consumer<String> consumer) throws Throwable {
+        if (shards.size() == 1) {
+            proceedOn(shards.get(0), joinPoint, args.apply(consumer));
+            return;
+        }
+        List<ShardStream> streams = new ArrayList<>(shards.size());
+        try {
+            for (int shard : shards) {
+                ShardStream stream = new ShardStream();
+                stream.future = executor.submit(() -> {
+                    try {
+                        return callOn(shard, joinPoint, args.apply(stream::put));
+                    } finally {
+                        stream.end();
+                    }
+                });
+                streams.add(stream);
+            }
+
+            PriorityQueue<Head> heads = new PriorityQueue<>(shards.size(), Comparator.comparing(Head::phoneNumber));
+            for (ShardStream stream : streams) {
+                stream.next(heads);
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                consumer.accept(head.phoneNumber());
+                head.stream().next(heads);
+            }
+        } finally {
+            streams.forEach(stream -> stream.future.cancel(true));
+        }
+    }
+
+    /**
+     * Runs the call on each shard in parallel and returns the results in shard order.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> scatter(List<Integer> shards, ProceedingJoinPoint joinPoint,
+                                Function<Integer, Object[]> args) throws Throwable {
+        List<Future<Object>> futures = new ArrayList<>(shards.size());
+        try {
+            for (int shard : shards) {
+                futures.add(executor.submit(() -> callOn(shard, joinPoint, args.apply(shard))));
+            }
+            List<T> results = new ArrayList<>(shards.size());
+            for (Future<Object> future : futures) {
+                results.add((T) awaitShard(future));
+            }
+            return results;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static Object awaitShard(Future<?> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object proceedOn(int shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static Object callOn(int shard, ProceedingJoinPoint joinPoint, Object[] args) throws Exception {
+        try {
+            return proceedOn(shard, joinPoint, args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new UndeclaredThrowableException(throwable);
+        }
+    }
+
+    private record Head(String phoneNumber, ShardStream stream) {
+    }
+
+    private static final class ShardStream {
+
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(MERGE_QUEUE_CAPACITY);
+
+        private Future<Object> future;
+
+        void put(String phoneNumber) {
+            try {
+                queue.put(phoneNumber);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Merge of the shard streams was cancelled");
+            }
+        }
+
+        /**
+         * Called on the shard thread when the shard has streamed its last number or failed.
+         */
+        void end() {
+            try {
+                queue.put(END_OF_SHARD);
+            } catch (InterruptedException e) {
+                // Cancelled: nobody takes from the queue anymore
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Adds the next number of this shard to the heads, or checks that the shard completed.
+         */
+        void next(PriorityQueue<Head> heads) throws Throwable {
+            String phoneNumber = queue.take();
+            if (phoneNumber == END_OF_SHARD) {
+                awaitShard(future);
+            } else {
+                heads.add(new Head(phoneNumber, this));
+            }
+        }
+    }
+}
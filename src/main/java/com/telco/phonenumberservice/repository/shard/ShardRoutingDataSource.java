@@ -0,0 +1,50 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard bound to the current thread by {@link ShardContext},
+ * or of the default shard when none is bound.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards, int defaultShard) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        setLenientFallback(false);
+    }
+
+    /**
+     * The DataSource of one shard, for work that addresses every shard in turn, such as migrations.
+     */
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
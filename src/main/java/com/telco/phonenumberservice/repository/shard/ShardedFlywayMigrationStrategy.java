@@ -0,0 +1,97 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the Flyway migrations to every shard, with the configuration Spring Boot built for the
+ * application DataSource, so each shard has its own schema history.
+ *
+ * Migrations that insert phone numbers insert them on every shard. With pruning enabled, the
+ * numbers that the router places on another shard are deleted afterwards; run it after adding
+ * a shard or moving a country code, once the numbers have been copied to their new shard.
+ * Pruning reads each shard in number order, {@value #PRUNE_CHUNK_SIZE} numbers at a time, and
+ * commits the deletes of each chunk before reading the next, so neither memory nor the
+ * transactions grow with the number of misplaced phone numbers.
+ */
+@Slf4j
+public class ShardedFlywayMigrationStrategy implements FlywayMigrationStrategy {
+
+    static final int PRUNE_CHUNK_SIZE = 1000;
+
+    private static final String NEXT_CHUNK_SQL = "SELECT number FROM phone_number WHERE number > ? ORDER BY number LIMIT ?";
+
+    private static final String DELETE_SQL = "DELETE FROM phone_number WHERE number = ?";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final ShardRouter shardRouter;
+
+    private final boolean pruneMisplacedNumbers;
+
+    private final int pruneChunkSize;
+
+    public ShardedFlywayMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                                          boolean pruneMisplacedNumbers) {
+        this(shardRoutingDataSource, shardRouter, pruneMisplacedNumbers, PRUNE_CHUNK_SIZE);
+    }
+
+    ShardedFlywayMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                                   boolean pruneMisplacedNumbers, int pruneChunkSize) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardRouter = shardRouter;
+        this.pruneMisplacedNumbers = pruneMisplacedNumbers;
+        this.pruneChunkSize = pruneChunkSize;
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        for (int shard = 0; shard < shardRoutingDataSource.shardCount(); shard++) {
+            Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(shardRoutingDataSource.shard(shard))
+                    .load()
+                    .migrate();
+            if (pruneMisplacedNumbers) {
+                pruneMisplacedNumbers(shard);
+            }
+        }
+    }
+
+    void pruneMisplacedNumbers(int shard) {
+        DataSource dataSource = shardRoutingDataSource.shard(shard);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        long deleted = 0;
+        String after = "";
+        List<String> chunk;
+        do {
+            chunk = jdbcTemplate.queryForList(NEXT_CHUNK_SQL, String.class, after, pruneChunkSize);
+            List<String> misplacedNumbers = new ArrayList<>();
+            for (String number : chunk) {
+                if (shardRouter.shardForNumber(number) != shard) {
+                    misplacedNumbers.add(number);
+                }
+            }
+            if (!misplacedNumbers.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_SQL,
+                        misplacedNumbers, misplacedNumbers.size(), (statement, number) -> statement.setString(1, number)));
+                deleted += misplacedNumbers.size();
+            }
+            if (!chunk.isEmpty()) {
+                after = chunk.getLast();
+            }
+        } while (chunk.size() == pruneChunkSize);
+        if (deleted > 0) {
+            log.info("Deleted {} phone numbers of other shards from shard {}", deleted, shard);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.telco.phonenumberservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.telco.phonenumberservice.exception.AlreadyActiveException;
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.exception.ServiceUnavailableException;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+import com.telco.phonenumberservice.validation.PhoneNumberNormalizer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts activations without waiting for the database and applies them in batches.
+ *
+ * Every phone number maps to one shard, so all activations of a number are applied by the same
+ * worker, in the order they were accepted. Each shard has a bounded queue and a worker thread that
+ * takes whatever is queued, up to the batch size, and applies it through
+ * {@link PhoneNumberService#activatePhoneNumbers}: one locking select and one JDBC batch of updates.
+ * When the queue of a shard is full the activation is rejected with a ServiceUnavailableException,
+ * so load is shed instead of queued without bound.
+ *
+ * The outcome of every accepted activation is kept for the status retention period, so clients can poll it.
+ */
+@Slf4j
+public class ActivationPipeline {
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final long MAX_TRACKED_REQUESTS = 1_000_000;
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final PhoneNumberService phoneNumberService;
+
+    private final Optional<PhoneNumberIndex> phoneNumberIndex;
+
+    private final int batchSize;
+
+    private final Duration retryAfter;
+
+    private final List<BlockingQueue<ActivationRequestDto>> queues;
+
+    private final List<Thread> workers;
+
+    private final Cache<String, ActivationRequestDto> requests;
+
+    private volatile boolean running;
+
+    public ActivationPipeline(PhoneNumberService phoneNumberService, Optional<PhoneNumberIndex> phoneNumberIndex,
+                              int shards, int queueCapacity, int batchSize,
+                              Duration statusRetention, Duration retryAfter) {
+        this.phoneNumberService = phoneNumberService;
+        this.phoneNumberIndex = phoneNumberIndex;
+        this.batchSize = batchSize;
+        this.retryAfter = retryAfter;
+        this.queues = new ArrayList<>(shards);
+        this.workers = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            BlockingQueue<ActivationRequestDto> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            workers.add(Thread.ofPlatform()
+                    .name("activation-shard-" + shard)
+                    .daemon(true)
+                    .unstarted(() -> drain(queue)));
+        }
+        this.requests = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .maximumSize(MAX_TRACKED_REQUESTS)
+                .build();
+    }
+
+    public void start() {
+        running = true;
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Stops accepting activations and waits for the workers to apply what is already queued.
+     * Workers that were never started, because {@link #start()} was not called, are skipped.
+     */
+    public void close() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+        for (Thread worker : workers) {
+            if (worker.getState() == Thread.State.NEW) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !worker.join(Duration.ofNanos(remaining))) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Queues the activation of a phone number.
+     *
+     * When the PhoneNumberIndex is enabled, unknown and already active phone numbers are rejected
+     * right away, as they are by {@link PhoneNumberService#activatePhoneNumber}.
+     *
+     * @param rawPhoneNumber the phone number to activate, as given by the client
+     * @return the pending activation request, whose requestId can be polled with {@link #getRequest}
+     * @throws NotFoundException if the index knows the phone number does not exist
+     * @throws AlreadyActiveException if the index knows the phone number is already active
+     * @throws IllegalStateException if the phone number is invalid
+     * @throws ServiceUnavailableException if the queue of the phone number's shard is full
+     */
+    public ActivationRequestDto submit(String rawPhoneNumber) {
+        String phoneNumber = PhoneNumberNormalizer.normalize(rawPhoneNumber);
+        if (phoneNumber == null) {
+            throw new IllegalStateException(IllegalStateException.INVALID_PHONE_NUMBER);
+        }
+        PhoneNumberIndex.Status indexedStatus = phoneNumberIndex.isPresent()
+                ? phoneNumberIndex.get().status(phoneNumber)
+                : PhoneNumberIndex.Status.UNKNOWN;
+        if (indexedStatus == PhoneNumberIndex.Status.NOT_FOUND) {
+            throw new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND);
+        }
+        if (indexedStatus == PhoneNumberIndex.Status.ACTIVE) {
+            throw new AlreadyActiveException(AlreadyActiveException.ALREADY_ACTIVE);
+        }
+        if (!running) {
+            throw new ServiceUnavailableException("Activations are not being accepted", retryAfter);
+        }
+
+        ActivationRequestDto request = ActivationRequestDto.builder()
+                .requestId(UUID.randomUUID().toString())
+                .phoneNumber(phoneNumber)
+                .status(ActivationRequestStatus.PENDING)
+                .build();
+        requests.put(request.getRequestId(), request);
+        if (!queues.get(shardOf(phoneNumber)).offer(request)) {
+            requests.invalidate(request.getRequestId());
+            throw new ServiceUnavailableException("Too many pending activations", retryAfter);
+        }
+        return request;
+    }
+
+    public Optional<ActivationRequestDto> getRequest(String requestId) {
+        return Optional.ofNullable(requests.getIfPresent(requestId));
+    }
+
+    public int shards() {
+        return queues.size();
+    }
+
+    public int queueSize(int shard) {
+        return queues.get(shard).size();
+    }
+
+    private int shardOf(String phoneNumber) {
+        return Math.floorMod(phoneNumber.hashCode(), queues.size());
+    }
+
+    private void drain(BlockingQueue<ActivationRequestDto> queue) {
+        List<ActivationRequestDto> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ActivationRequestDto first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies a batch in one transaction. Within a batch, only the first request for a number
+     * can activate it; later requests for the same number find it already active.
+     */
+    void apply(List<ActivationRequestDto> batch) {
+        Map<String, ActivationStatus> results = new HashMap<>();
+        try {
+            phoneNumberService.activatePhoneNumbers(batch.stream().map(ActivationRequestDto::getPhoneNumber).toList())
+                    .getResults()
+                    .forEach(result -> results.put(result.getPhoneNumber(), result.getStatus()));
+        } catch (RuntimeException e) {
+            log.error("Failed to apply a batch of {} activations", batch.size(), e);
+        }
+
+        Set<String> activatedNumbers = new HashSet<>();
+        for (ActivationRequestDto request : batch) {
+            ActivationStatus status = results.get(request.getPhoneNumber());
+            if (status == ActivationStatus.ACTIVATED && !activatedNumbers.add(request.getPhoneNumber())) {
+                status = ActivationStatus.ALREADY_ACTIVE;
+            }
+            requests.put(request.getRequestId(), request.toBuilder()
+                    .status(toRequestStatus(status))
+                    .build());
+        }
+    }
+
+    private static ActivationRequestStatus toRequestStatus(ActivationStatus status) {
+        if (status == null) {
+            return ActivationRequestStatus.FAILED;
+        }
+        return switch (status) {
+            case ACTIVATED -> ActivationRequestStatus.ACTIVATED;
+            case ALREADY_ACTIVE -> ActivationRequestStatus.ALREADY_ACTIVE;
+            case NOT_FOUND -> ActivationRequestStatus.NOT_FOUND;
+        };
+    }
+}
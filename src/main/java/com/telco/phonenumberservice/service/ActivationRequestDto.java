@@ -0,0 +1,12 @@
+package com.telco.phonenumberservice.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder(toBuilder = true)
+@Getter
+public class ActivationRequestDto {
+    private String requestId;
+    private String phoneNumber;
+    private ActivationRequestStatus status;
+}
@@ -0,0 +1,9 @@
+package com.telco.phonenumberservice.service;
+
+public enum ActivationRequestStatus {
+    PENDING,
+    ACTIVATED,
+    ALREADY_ACTIVE,
+    NOT_FOUND,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.telco.phonenumberservice.service;
+
+public enum ActivationStatus {
+    ACTIVATED,
+    ALREADY_ACTIVE,
+    NOT_FOUND
+}
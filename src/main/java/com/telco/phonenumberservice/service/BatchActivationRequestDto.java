@@ -0,0 +1,29 @@
+package com.telco.phonenumberservice.service;
+
+import com.telco.phonenumberservice.validation.ValidPhoneNumber;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchActivationRequestDto {
+
+    public static final int MAX_PHONE_NUMBERS = 1000;
+
+    @NotEmpty(message = "phoneNumbers must not be empty")
+    @Size(max = MAX_PHONE_NUMBERS, message = "At most 1000 phone numbers can be activated at once")
+    private List<
+            @NotNull(message = "Phone number must not be null")
+            @Size(max = 20, message = "Phone number must be at most 20 characters")
+            @ValidPhoneNumber
+            String> phoneNumbers;
+}
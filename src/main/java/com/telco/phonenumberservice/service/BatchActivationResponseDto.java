@@ -0,0 +1,12 @@
+package com.telco.phonenumberservice.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class BatchActivationResponseDto {
+    private List<PhoneNumberActivationResultDto> results;
+}
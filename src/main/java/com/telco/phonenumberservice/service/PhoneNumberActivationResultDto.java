@@ -0,0 +1,11 @@
+package com.telco.phonenumberservice.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+public class PhoneNumberActivationResultDto {
+    private String phoneNumber;
+    private ActivationStatus status;
+}
@@ -0,0 +1,16 @@
+package com.telco.phonenumberservice.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class PhoneNumberImportResultDto {
+    private long rowsImported;
+    private long rowsRejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private List<String> errors;
+}
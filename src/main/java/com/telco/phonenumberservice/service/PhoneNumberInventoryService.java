@@ -0,0 +1,549 @@
+package com.telco.phonenumberservice.service;
+
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndexLoader;
+import com.telco.phonenumberservice.repository.shard.CustomerShardDirectory;
+import com.telco.phonenumberservice.repository.shard.ShardContext;
+import com.telco.phonenumberservice.repository.shard.ShardRouter;
+import com.telco.phonenumberservice.validation.PhoneNumberNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.telco.phonenumberservice.service.PhoneNumberService.CUSTOMER_PHONE_NUMBERS_CACHE;
+
+/**
+ * Bulk import and export of the customer and phone_number tables as CSV.
+ *
+ * Every CSV row holds {@value #CSV_HEADER}. A row with an empty number and status only
+ * creates or renames the customer, so customers without phone numbers survive a round trip.
+ *
+ * The import reads the request one line at a time and never holds more than a few chunks of
+ * rows, so memory use does not depend on the size of the file. Rows are partitioned by phone
+ * number and each partition writes its chunks, in order, with one JDBC batch per transaction;
+ * all rows for a phone number go to the same partition, so the last row for a number wins.
+ * Customers are merged from the reading thread before any chunk that refers to them is handed
+ * to a partition, so the foreign key always holds.
+ *
+ * With sharding, customers are merged into every shard and each chunk writes the rows of each
+ * shard in a transaction of its own.
+ */
+@Slf4j
+@Service
+public class PhoneNumberInventoryService {
+
+    public static final String CSV_HEADER = "customer_id,customer_name,number,is_active";
+
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final int MAX_CUSTOMER_ID_LENGTH = 8;
+
+    private static final int MAX_CUSTOMER_NAME_LENGTH = 100;
+
+    private static final int MAX_PHONE_NUMBER_LENGTH = 20;
+
+    private static final String MERGE_CUSTOMER_SQL = """
+            MERGE INTO customer c
+            USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(100)))) s (customer_id, name)
+            ON c.customer_id = s.customer_id
+            WHEN MATCHED AND c.name <> s.name THEN UPDATE SET name = s.name
+            WHEN NOT MATCHED THEN INSERT (customer_id, name) VALUES (s.customer_id, s.name)
+            """;
+
+    private static final String MERGE_PHONE_NUMBER_SQL = """
+            MERGE INTO phone_number p
+            USING (VALUES (CAST(? AS VARCHAR(20)), CAST(? AS BOOLEAN), CAST(? AS VARCHAR(100)))) s (number, is_active, customer_id)
+            ON p.number = s.number
+            WHEN MATCHED THEN UPDATE SET is_active = s.is_active, customer_id = s.customer_id
+            WHEN NOT MATCHED THEN INSERT (id, number, is_active, customer_id)
+                VALUES (RANDOM_UUID(), s.number, s.is_active, s.customer_id)
+            """;
+
+    private static final String EXPORT_SQL = """
+            SELECT c.customer_id, c.name, p.number, p.is_active
+            FROM customer c
+            LEFT JOIN phone_number p ON p.customer_id = c.customer_id
+            ORDER BY c.customer_id, p.number
+            """;
+
+    private static final String EXPORT_CUSTOMERS_SQL = """
+            SELECT customer_id, name, NULL, NULL
+            FROM customer
+            ORDER BY customer_id
+            """;
+
+    private static final String EXPORT_PHONE_NUMBERS_SQL = """
+            SELECT c.customer_id, c.name, p.number, p.is_active
+            FROM customer c
+            JOIN phone_number p ON p.customer_id = c.customer_id
+            ORDER BY c.customer_id, p.number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final PhoneNumberVersions phoneNumberVersions;
+
+    private final Optional<PhoneNumberIndexLoader> phoneNumberIndexLoader;
+
+    private final Optional<ShardRouter> shardRouter;
+
+    private final Optional<CustomerShardDirectory> customerShardDirectory;
+
+    private final int chunkSize;
+
+    private final int parallelism;
+
+    public PhoneNumberInventoryService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            PhoneNumberVersions phoneNumberVersions,
+            Optional<PhoneNumberIndexLoader> phoneNumberIndexLoader,
+            Optional<ShardRouter> shardRouter,
+            Optional<CustomerShardDirectory> customerShardDirectory,
+            @Value("${phone-number-service.import.chunk-size:5000}") int chunkSize,
+            @Value("${phone-number-service.import.parallelism:4}") int parallelism
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.cacheManager = cacheManager;
+        this.phoneNumberVersions = phoneNumberVersions;
+        this.phoneNumberIndexLoader = phoneNumberIndexLoader;
+        this.shardRouter = shardRouter;
+        this.customerShardDirectory = customerShardDirectory;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Imports customers and phone numbers from CSV, inserting new rows and updating existing ones.
+     *
+     * Invalid rows, and the rows of a chunk that fails to write, are rejected and reported while
+     * the rest of the file is still imported. Once the import ends, even with an error, cached customer
+     * lists and versions are invalidated and the PhoneNumberIndex is reloaded, if anything was written.
+     *
+     * @param inputStream CSV starting with the header {@value #CSV_HEADER}, in UTF-8
+     * @return the number of imported and rejected rows, the throughput and the first errors
+     * @throws IllegalStateException if the header is missing or different
+     */
+    public PhoneNumberImportResultDto importCsv(InputStream inputStream) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        Semaphore chunksInFlight = new Semaphore(parallelism * 2);
+        List<ExecutorService> partitions = new ArrayList<>(parallelism);
+        for (int partition = 0; partition < parallelism; partition++) {
+            partitions.add(Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                    .name("phone-number-import-" + partition)
+                    .daemon(true)
+                    .factory()));
+        }
+        try {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(inputStream, StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+            readHeader(reader);
+
+            List<List<ImportRow>> chunks = new ArrayList<>(parallelism);
+            for (int partition = 0; partition < parallelism; partition++) {
+                chunks.add(new ArrayList<>(chunkSize));
+            }
+            CustomerBatch customers = new CustomerBatch();
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                ImportRow row = parseRow(line, lineNumber, progress);
+                if (row == null) {
+                    continue;
+                }
+                customers.add(row);
+                if (row.number() == null) {
+                    if (customers.size() >= chunkSize) {
+                        customers.flush(progress);
+                    }
+                    continue;
+                }
+                int partition = Math.floorMod(row.number().hashCode(), parallelism);
+                List<ImportRow> chunk = chunks.get(partition);
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    customers.flush(progress);
+                    submit(partitions.get(partition), chunk, chunksInFlight, progress);
+                    chunks.set(partition, new ArrayList<>(chunkSize));
+                }
+            }
+            customers.flush(progress);
+            for (int partition = 0; partition < parallelism; partition++) {
+                if (!chunks.get(partition).isEmpty()) {
+                    submit(partitions.get(partition), chunks.get(partition), chunksInFlight, progress);
+                }
+            }
+        } finally {
+            for (ExecutorService partition : partitions) {
+                partition.shutdown();
+            }
+            for (ExecutorService partition : partitions) {
+                while (!partition.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.info("Waiting for import chunks to be written");
+                }
+            }
+            if (progress.written) {
+                inventoryChanged();
+            }
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        long rowsPerSecond = progress.imported.get() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        log.info("Imported {} rows and rejected {} rows in {} ms ({} rows/s)",
+                progress.imported.get(), progress.rejected.get(), elapsedNanos / 1_000_000, rowsPerSecond);
+        return PhoneNumberImportResultDto.builder()
+                .rowsImported(progress.imported.get())
+                .rowsRejected(progress.rejected.get())
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(progress.errors())
+                .build();
+    }
+
+    /**
+     * Writes every customer with each of its phone numbers as CSV, in customer and number order.
+     *
+     * Rows are read through a cursor and written as they arrive, so memory use does not grow
+     * with the size of the tables. The output can be imported again unchanged.
+     *
+     * With sharding, every customer is written first without a phone number, then the phone numbers
+     * of each shard in turn, each shard in customer and number order.
+     *
+     * @param writer receives the header and one line per phone number, or per customer without phone numbers
+     * @return the number of rows written
+     */
+    public long exportCsv(Writer writer) throws IOException {
+        long start = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        if (shardRouter.isEmpty()) {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> exportRows(writer, EXPORT_SQL, rows));
+        } else {
+            ShardRouter router = shardRouter.get();
+            ShardContext.run(router.defaultShard(), () -> readOnlyTransactionTemplate.executeWithoutResult(status ->
+                    exportRows(writer, EXPORT_CUSTOMERS_SQL, rows)));
+            for (int shard = 0; shard < router.shardCount(); shard++) {
+                ShardContext.run(shard, () -> readOnlyTransactionTemplate.executeWithoutResult(status ->
+                        exportRows(writer, EXPORT_PHONE_NUMBERS_SQL, rows)));
+            }
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        log.info("Exported {} rows in {} ms ({} rows/s)", rows.get(), elapsedNanos / 1_000_000,
+                rows.get() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        return rows.get();
+    }
+
+    private void exportRows(Writer writer, String sql, AtomicLong rows) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            String number = resultSet.getString(3);
+            try {
+                writeCsvField(writer, resultSet.getString(1));
+                writer.write(',');
+                writeCsvField(writer, resultSet.getString(2));
+                writer.write(',');
+                if (number != null) {
+                    writer.write(number);
+                    writer.write(',');
+                    writer.write(resultSet.getBoolean(4) ? "true" : "false");
+                } else {
+                    writer.write(',');
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows.incrementAndGet();
+        });
+    }
+
+    private void submit(ExecutorService partition, List<ImportRow> chunk,
+                        Semaphore chunksInFlight, ImportProgress progress) throws InterruptedException {
+        chunksInFlight.acquire();
+        partition.execute(() -> {
+            try {
+                if (shardRouter.isEmpty()) {
+                    writeChunk(chunk, progress);
+                    return;
+                }
+                Map<Integer, List<ImportRow>> shardChunks = new TreeMap<>();
+                for (ImportRow row : chunk) {
+                    shardChunks.computeIfAbsent(shardRouter.get().shardForNumber(row.number()), shard -> new ArrayList<>())
+                            .add(row);
+                }
+                shardChunks.forEach((shard, shardChunk) -> ShardContext.run(shard, () -> writeChunk(shardChunk, progress)));
+            } finally {
+                chunksInFlight.release();
+            }
+        });
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ImportProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(MERGE_PHONE_NUMBER_SQL, chunk, chunk.size(), (statement, row) -> {
+                        statement.setString(1, row.number());
+                        statement.setBoolean(2, row.active());
+                        statement.setString(3, row.customerId());
+                    }));
+            progress.written = true;
+            progress.imported.addAndGet(chunk.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to import lines {} to {}", chunk.getFirst().lineNumber(), chunk.getLast().lineNumber(), e);
+            progress.reject(chunk.size(), "Lines " + chunk.getFirst().lineNumber() + " to "
+                    + chunk.getLast().lineNumber() + ": could not be written");
+        }
+    }
+
+    /**
+     * Runs the action once on every shard, or once when the tables are not sharded.
+     */
+    private void onEveryShard(Runnable action) {
+        if (shardRouter.isEmpty()) {
+            action.run();
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.get().shardCount(); shard++) {
+            ShardContext.run(shard, action);
+        }
+    }
+
+    private void inventoryChanged() {
+        Cache cache = cacheManager.getCache(CUSTOMER_PHONE_NUMBERS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        phoneNumberVersions.allCustomerPhoneNumbersChanged();
+        customerShardDirectory.ifPresent(CustomerShardDirectory::invalidateAll);
+        phoneNumberIndexLoader.ifPresent(PhoneNumberIndexLoader::reload);
+    }
+
+    private static void readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header != null && !header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        if (header == null || !header.trim().equalsIgnoreCase(CSV_HEADER)) {
+            throw new IllegalStateException("CSV must start with the header " + CSV_HEADER);
+        }
+    }
+
+    /**
+     * Validates a row with the same rules the API applies to customer IDs and phone numbers.
+     *
+     * @return the row with its phone number normalized, or null if it was rejected
+     */
+    private static ImportRow parseRow(String line, long lineNumber, ImportProgress progress) {
+        List<String> fields = parseCsvLine(line);
+        if (fields == null || fields.size() != 4) {
+            progress.reject(1, "Line " + lineNumber + ": expected 4 fields");
+            return null;
+        }
+        String customerId = fields.get(0);
+        if (customerId.isEmpty() || customerId.length() > MAX_CUSTOMER_ID_LENGTH || !isAlphanumeric(customerId)) {
+            progress.reject(1, "Line " + lineNumber + ": customerId must be 1 to 8 alphanumeric characters");
+            return null;
+        }
+        String customerName = fields.get(1);
+        if (customerName.isBlank() || customerName.length() > MAX_CUSTOMER_NAME_LENGTH) {
+            progress.reject(1, "Line " + lineNumber + ": customer_name must be 1 to 100 characters");
+            return null;
+        }
+        String rawNumber = fields.get(2);
+        String active = fields.get(3);
+        if (rawNumber.isEmpty() && active.isEmpty()) {
+            return new ImportRow(lineNumber, customerId, customerName, null, false);
+        }
+        String number = rawNumber.length() > MAX_PHONE_NUMBER_LENGTH ? null : PhoneNumberNormalizer.normalize(rawNumber);
+        if (number == null) {
+            progress.reject(1, "Line " + lineNumber + ": invalid phone number format");
+            return null;
+        }
+        if (!active.equalsIgnoreCase("true") && !active.equalsIgnoreCase("false")) {
+            progress.reject(1, "Line " + lineNumber + ": is_active must be true or false");
+            return null;
+        }
+        return new ImportRow(lineNumber, customerId, customerName, number, active.equalsIgnoreCase("true"));
+    }
+
+    /**
+     * Splits one CSV line into fields. Fields may be quoted, with quotes inside them doubled.
+     *
+     * @return the fields, or null if a quoted field is not closed on the same line
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isAlphanumeric(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record ImportRow(long lineNumber, String customerId, String customerName, String number, boolean active) {
+    }
+
+    private static final class ImportProgress {
+
+        private final AtomicLong imported = new AtomicLong();
+
+        private final AtomicLong rejected = new AtomicLong();
+
+        /**
+         * Whether any transaction of the import has committed.
+         */
+        private volatile boolean written;
+
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private void reject(int rows, String error) {
+            rejected.addAndGet(rows);
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        private List<String> errors() {
+            synchronized (errors) {
+                return List.copyOf(errors);
+            }
+        }
+    }
+
+    /**
+     * Customers read since the last flush, with the last name read for each of them.
+     */
+    private final class CustomerBatch {
+
+        private final Map<String, String> names = new LinkedHashMap<>();
+
+        private long customerOnlyRows;
+
+        private void add(ImportRow row) {
+            names.put(row.customerId(), row.customerName());
+            if (row.number() == null) {
+                customerOnlyRows++;
+            }
+        }
+
+        private int size() {
+            return names.size();
+        }
+
+        private void flush(ImportProgress progress) {
+            if (names.isEmpty()) {
+                return;
+            }
+            List<Map.Entry<String, String>> batch = new ArrayList<>(names.entrySet());
+            onEveryShard(() -> {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(MERGE_CUSTOMER_SQL, batch, batch.size(), (statement, customer) -> {
+                            statement.setString(1, customer.getKey());
+                            statement.setString(2, customer.getValue());
+                        }));
+                progress.written = true;
+            });
+            progress.imported.addAndGet(customerOnlyRows);
+            names.clear();
+            customerOnlyRows = 0;
+        }
+    }
+}
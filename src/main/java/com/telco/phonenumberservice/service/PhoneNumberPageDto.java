@@ -0,0 +1,13 @@
+package com.telco.phonenumberservice.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class PhoneNumberPageDto {
+    private List<String> phoneNumbers;
+    private String nextCursor;
+}
@@ -1,92 +1,314 @@
 package com.telco.phonenumberservice.service;
 
+import com.telco.phonenumberservice.exception.AlreadyActiveException;
 import com.telco.phonenumberservice.exception.IllegalStateException;
 import com.telco.phonenumberservice.exception.NotFoundException;
 import com.telco.phonenumberservice.repository.customer.CustomerRepository;
 import com.telco.phonenumberservice.repository.phonenumber.PhoneNumber;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
 import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberRepository;
+import com.telco.phonenumberservice.validation.PhoneNumberNormalizer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PhoneNumberService {
 
+    public static final String CUSTOMER_PHONE_NUMBERS_CACHE = "customerPhoneNumbers";
+
     private final PhoneNumberRepository phoneNumberRepository;
 
     private final CustomerRepository customerRepository;
 
+    private final PhoneNumberVersions phoneNumberVersions;
+
+    private final Optional<PhoneNumberIndex> phoneNumberIndex;
+
     /**
-     * This method fetches all PhoneNumber entities from the repository,
-     * extracts their number field, and returns a list of phone number strings.
+     * Returns the version of the list of all phone numbers.
      *
-     * @return a list of all phone numbers as Strings
+     * The version changes after every committed write through this service, so it can be
+     * read before the list to decide whether a client already holds the current list.
      */
-    public List<String> getAllPhoneNumbers() {
-        return phoneNumberRepository.findAll()
-                .stream()
-                .map(PhoneNumber::getNumber)
-                .collect(Collectors.toList());
+    public String getPhoneNumbersVersion() {
+        return phoneNumberVersions.phoneNumbersVersion();
+    }
+
+    /**
+     * Returns the version of the phone number list of a customer.
+     *
+     * The version changes after every committed write through this service that adds or moves
+     * phone numbers of the customer. Activations leave it unchanged, as the list only holds numbers.
+     */
+    public String getCustomerPhoneNumbersVersion(String customerId) {
+        return phoneNumberVersions.customerPhoneNumbersVersion(customerId);
+    }
+
+    /**
+     * Streams every phone number, in number order, to the given consumer.
+     *
+     * Only the number column is projected and rows are fetched through a cursor,
+     * so memory use does not grow with the size of the table.
+     *
+     * @param consumer receives each phone number as it is read
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPhoneNumbers(Consumer<String> consumer) {
+        try (Stream<String> numbers = phoneNumberRepository.streamAllNumbers()) {
+            numbers.forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns one page of phone numbers using keyset pagination.
+     *
+     * Numbers are ordered by value and the page starts strictly after the given cursor.
+     * One extra row is fetched to find out whether another page exists; if it does,
+     * the last number of this page is returned as the next cursor.
+     *
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of phone numbers in the page
+     * @return a PhoneNumberPageDto with the phone numbers and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public PhoneNumberPageDto getPhoneNumbersPage(String after, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<String> phoneNumbers = after == null
+                ? phoneNumberRepository.findNumbers(fetchLimit)
+                : phoneNumberRepository.findNumbersAfter(after, fetchLimit);
+        return toPage(phoneNumbers, limit);
+    }
+
+    /**
+     * Streams the phone numbers that start with the given prefix and have the given status,
+     * in number order, to the given consumer.
+     *
+     * All numbers with a prefix form one contiguous range in number order, so this is a single
+     * index range scan rather than a scan of every phone number.
+     *
+     * @param prefix the leading characters of the phone numbers, or null for any phone number
+     * @param active the status of the phone numbers, or null for any status
+     * @param consumer receives each phone number as it is read
+     */
+    @Transactional(readOnly = true)
+    public void streamPhoneNumbers(String prefix, Boolean active, Consumer<String> consumer) {
+        try (Stream<String> numbers = phoneNumberRepository.streamNumbersInRange(
+                rangeStart(prefix), rangeEnd(prefix), active)) {
+            numbers.forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns one page of the phone numbers that start with the given prefix and have the given status,
+     * using keyset pagination as {@link #getPhoneNumbersPage} does.
+     *
+     * @param prefix the leading characters of the phone numbers, or null for any phone number
+     * @param active the status of the phone numbers, or null for any status
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of phone numbers in the page
+     * @return a PhoneNumberPageDto with the phone numbers and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public PhoneNumberPageDto searchPhoneNumbersPage(String prefix, Boolean active, String after, int limit) {
+        List<String> phoneNumbers = phoneNumberRepository.findNumbersInRange(rangeStart(prefix), rangeEnd(prefix),
+                after == null ? "" : after, active, Limit.of(limit + 1));
+        return toPage(phoneNumbers, limit);
     }
 
     /**
      * Retrieves all phone numbers associated with a specific customer.
      *
-     * This method first checks if a customer with the given customerId exists.
-     * If the customer does not exist, it throws a NotFoundException.
-     * It then fetches all PhoneNumber entities linked to the customer.
-     * If no phone numbers are found, it throws a NotFoundException.
-     * Finally, it returns a list of phone number strings.
+     * This method runs a single query that left joins the customer to its phone numbers
+     * and projects only the number column.
+     * If no row comes back, the customer does not exist and a NotFoundException is thrown.
+     * If the only row holds no number, the customer has no phone numbers and a NotFoundException is thrown.
+     * Otherwise, it returns the list of phone number strings.
+     *
+     * The query runs in a read-only transaction, so Hibernate neither snapshots nor flushes anything.
+     * Results are cached per customerId; cache hits do not open a transaction. The cached lists only hold numbers, not their status,
+     * so activations leave them valid; write paths that add or move numbers must evict the
+     * affected customers.
      *
      * @param customerId the unique identifier of the customer
      * @return a list of phone numbers as Strings associated with the given customer
      * @throws NotFoundException if the customer does not exist or has no phone numbers
      */
+    @Cacheable(CUSTOMER_PHONE_NUMBERS_CACHE)
+    @Transactional(readOnly = true)
     public List<String> getAllPhoneNumbersByCustomer(String customerId) {
-        if (!customerRepository.existsByCustomerId(customerId)) {
+        List<String> phoneNumbers = customerRepository.findPhoneNumbersByCustomerId(customerId);
+        if (phoneNumbers.isEmpty()) {
             throw new NotFoundException("Customer ID "+customerId+" not found.");
         }
-
-        List<PhoneNumber> phoneNumbers = phoneNumberRepository.findByCustomer_CustomerId(customerId);
-        if (phoneNumbers.isEmpty()) {
-            throw new NotFoundException("No phone numbers linked to this customer");
+        if (phoneNumbers.get(0) == null) {
+            throw new NotFoundException(NotFoundException.NO_PHONE_NUMBERS);
         }
-        return phoneNumbers.stream()
-                .map(PhoneNumber::getNumber)
-                .collect(Collectors.toList());
+        return List.copyOf(phoneNumbers);
     }
 
     /**
      * Activates a given phone number.
      *
-     * This method searches for a PhoneNumber entity matching the provided phoneNumber.
-     * If the phone number is not found, it throws a NotFoundException.
-     * If the phone number is already active, it throws an IllegalStateException.
-     * Otherwise, it marks the phone number as active, saves the change to the repository,
-     * and returns a PhoneNumberResponseDto containing the phone number and its active status.
+     * The phone number is normalized first, so formatted input such as "+61 412 345 678"
+     * matches the stored "+61412345678".
+     * When the in-memory PhoneNumberIndex is enabled, unknown and already active phone numbers
+     * are rejected from the index without touching the database.
+     * Otherwise, this method runs a single conditional update that only flips an inactive phone number to active,
+     * so concurrent activations of the same number cannot both succeed.
+     * If no row was updated, it checks whether the phone number exists:
+     * if it does, it is already active and an AlreadyActiveException is thrown,
+     * otherwise a NotFoundException is thrown.
+     * On success it returns a PhoneNumberResponseDto containing the phone number and its active status.
      *
-     * @param phoneNumber the phone number to activate
-     * @return a PhoneNumberResponseDto containing the phone number and its active status
+     * @param rawPhoneNumber the phone number to activate, as given by the client
+     * @return a PhoneNumberResponseDto containing the canonical phone number and its active status
      * @throws NotFoundException if the phone number does not exist in the database
-     * @throws IllegalStateException if the phone number is already active
+     * @throws AlreadyActiveException if the phone number is already active
+     * @throws IllegalStateException if the phone number is invalid
      */
-    public PhoneNumberResponseDto activatePhoneNumber(String phoneNumber) {
-        PhoneNumber phoneNumberEntity = phoneNumberRepository.findByNumber(phoneNumber)
-                .orElseThrow(() -> new NotFoundException("Phone Number not found."));
-
-        if(phoneNumberEntity.isActive()) {
-            throw new IllegalStateException("Phone number is already activated");
+    @Transactional
+    public PhoneNumberResponseDto activatePhoneNumber(String rawPhoneNumber) {
+        String phoneNumber = PhoneNumberNormalizer.normalize(rawPhoneNumber);
+        if (phoneNumber == null) {
+            throw new IllegalStateException(IllegalStateException.INVALID_PHONE_NUMBER);
+        }
+        PhoneNumberIndex.Status indexedStatus = phoneNumberIndex.isPresent()
+                ? phoneNumberIndex.get().status(phoneNumber)
+                : PhoneNumberIndex.Status.UNKNOWN;
+        if (indexedStatus == PhoneNumberIndex.Status.NOT_FOUND) {
+            throw new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND);
+        }
+        if (indexedStatus == PhoneNumberIndex.Status.ACTIVE) {
+            throw new AlreadyActiveException(AlreadyActiveException.ALREADY_ACTIVE);
         }
 
-        phoneNumberEntity.setActive(true);
-        phoneNumberRepository.save(phoneNumberEntity);
+        if (phoneNumberRepository.activateByNumber(phoneNumber) == 0) {
+            if (phoneNumberRepository.existsByNumber(phoneNumber)) {
+                throw new AlreadyActiveException(AlreadyActiveException.ALREADY_ACTIVE);
+            }
+            throw new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND);
+        }
+        afterActivationCommit(List.of(phoneNumber));
 
         return PhoneNumberResponseDto.builder()
-                .phoneNumber(phoneNumberEntity.getNumber())
-                .isActive(phoneNumberEntity.isActive())
+                .phoneNumber(phoneNumber)
+                .isActive(true)
+                .build();
+    }
+
+    /**
+     * Activates a batch of phone numbers in one transaction.
+     *
+     * This method loads and locks all requested PhoneNumber entities with a single query,
+     * then marks every inactive one as active. The changes are flushed at commit as
+     * JDBC batch updates, ordered by primary key.
+     * Phone numbers are normalized first and reported in their canonical form; numbers that
+     * cannot be normalized are looked up as given and reported as NOT_FOUND.
+     * Duplicate phone numbers in the request are reported once, in the order of first appearance.
+     *
+     * @param phoneNumbers the phone numbers to activate
+     * @return a BatchActivationResponseDto with the activation status of each phone number
+     */
+    @Transactional
+    public BatchActivationResponseDto activatePhoneNumbers(List<String> phoneNumbers) {
+        Set<String> requestedNumbers = new LinkedHashSet<>(phoneNumbers.size());
+        for (String phoneNumber : phoneNumbers) {
+            String canonicalNumber = PhoneNumberNormalizer.normalize(phoneNumber);
+            requestedNumbers.add(canonicalNumber != null ? canonicalNumber : phoneNumber);
+        }
+        Map<String, PhoneNumber> phoneNumberEntities = phoneNumberRepository.findAllByNumberIn(requestedNumbers)
+                .stream()
+                .collect(Collectors.toMap(PhoneNumber::getNumber, Function.identity()));
+
+        List<PhoneNumberActivationResultDto> results = new ArrayList<>(requestedNumbers.size());
+        List<String> activatedNumbers = new ArrayList<>();
+        for (String phoneNumber : requestedNumbers) {
+            PhoneNumber phoneNumberEntity = phoneNumberEntities.get(phoneNumber);
+            ActivationStatus status;
+            if (phoneNumberEntity == null) {
+                status = ActivationStatus.NOT_FOUND;
+            } else if (phoneNumberEntity.isActive()) {
+                status = ActivationStatus.ALREADY_ACTIVE;
+            } else {
+                phoneNumberEntity.setActive(true);
+                activatedNumbers.add(phoneNumber);
+                status = ActivationStatus.ACTIVATED;
+            }
+            results.add(PhoneNumberActivationResultDto.builder()
+                    .phoneNumber(phoneNumber)
+                    .status(status)
+                    .build());
+        }
+
+        afterActivationCommit(activatedNumbers);
+
+        return BatchActivationResponseDto.builder()
+                .results(results)
                 .build();
     }
+
+    /**
+     * Cuts the extra row fetched to detect a next page, and returns the last number of the page as its cursor.
+     */
+    private static PhoneNumberPageDto toPage(List<String> phoneNumbers, int limit) {
+        String nextCursor = null;
+        if (phoneNumbers.size() > limit) {
+            phoneNumbers = phoneNumbers.subList(0, limit);
+            nextCursor = phoneNumbers.get(limit - 1);
+        }
+        return PhoneNumberPageDto.builder()
+                .phoneNumbers(phoneNumbers)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String rangeStart(String prefix) {
+        return prefix == null ? "" : prefix;
+    }
+
+    /**
+     * The smallest string greater than every string starting with the prefix:
+     * the prefix with its last character incremented.
+     */
+    private static String rangeEnd(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return String.valueOf(Character.MAX_VALUE);
+        }
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    /**
+     * Keeps the in-memory index and the list versions in sync once the activation is committed,
+     * so a rollback never leaks into them and readers never see a new version with old data.
+     */
+    private void afterActivationCommit(List<String> activatedNumbers) {
+        if (activatedNumbers.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                phoneNumberIndex.ifPresent(index -> activatedNumbers.forEach(index::markActive));
+                phoneNumberVersions.phoneNumbersChanged();
+            }
+        });
+    }
 }
@@ -0,0 +1,63 @@
+package com.telco.phonenumberservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the phone number lists, used to build ETags.
+ *
+ * There is one version for the list of all phone numbers and one per customer list.
+ * PhoneNumberService bumps them after every committed write, so a version only changes
+ * when the data behind it may have changed. Versions are prefixed with the startup time
+ * of this instance, so values handed out before a restart never match again.
+ */
+@Component
+public class PhoneNumberVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong phoneNumbersVersion = new AtomicLong();
+
+    private final AtomicLong customersGeneration = new AtomicLong();
+
+    private final ConcurrentMap<String, AtomicLong> customerPhoneNumbersVersions = new ConcurrentHashMap<>();
+
+    public String phoneNumbersVersion() {
+        return format(phoneNumbersVersion.get());
+    }
+
+    public String customerPhoneNumbersVersion(String customerId) {
+        AtomicLong version = customerPhoneNumbersVersions.get(customerId);
+        return format(customersGeneration.get()) + "." + (version == null ? 0 : version.get());
+    }
+
+    /**
+     * Records a change to the phone numbers or their status.
+     */
+    public void phoneNumbersChanged() {
+        phoneNumbersVersion.incrementAndGet();
+    }
+
+    /**
+     * Records a change to the phone numbers of a customer, which also changes the list of all phone numbers.
+     */
+    public void customerPhoneNumbersChanged(String customerId) {
+        customerPhoneNumbersVersions.computeIfAbsent(customerId, id -> new AtomicLong()).incrementAndGet();
+        phoneNumbersVersion.incrementAndGet();
+    }
+
+    /**
+     * Records a change that may have touched the phone numbers of any customer, such as a bulk import.
+     */
+    public void allCustomerPhoneNumbersChanged() {
+        customersGeneration.incrementAndGet();
+        phoneNumbersVersion.incrementAndGet();
+    }
+
+    private String format(long version) {
+        return epoch + "-" + version;
+    }
+}
@@ -0,0 +1,88 @@
+package com.telco.phonenumberservice.validation;
+
+/**
+ * Single-pass validation and normalization of phone numbers.
+ *
+ * A valid phone number is an optional leading '+' followed by 2 to 15 digits, where single
+ * separators (space, '-', '.', '(' or ')') may appear between digits. The canonical form keeps
+ * the '+' and the digits only, so "+61 412-345-678" becomes "+61412345678".
+ * Both operations run in linear time with no backtracking; validation never allocates and
+ * normalization only allocates when the input is not already canonical.
+ */
+public final class PhoneNumberNormalizer {
+
+    public static final int MIN_DIGITS = 2;
+
+    public static final int MAX_DIGITS = 15;
+
+    private static final int INVALID = -1;
+
+    private PhoneNumberNormalizer() {
+    }
+
+    public static boolean isValid(CharSequence phoneNumber) {
+        return phoneNumber != null && countDigits(phoneNumber) != INVALID;
+    }
+
+    /**
+     * @return the canonical form of the phone number, or null if it is not valid
+     */
+    public static String normalize(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        int digits = countDigits(phoneNumber);
+        if (digits == INVALID) {
+            return null;
+        }
+        boolean plus = phoneNumber.charAt(0) == '+';
+        int canonicalLength = plus ? digits + 1 : digits;
+        if (canonicalLength == phoneNumber.length()) {
+            return phoneNumber;
+        }
+        char[] canonical = new char[canonicalLength];
+        int position = 0;
+        if (plus) {
+            canonical[position++] = '+';
+        }
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (isDigit(c)) {
+                canonical[position++] = c;
+            }
+        }
+        return new String(canonical);
+    }
+
+    /**
+     * @return the number of digits of a valid phone number, or {@link #INVALID}
+     */
+    private static int countDigits(CharSequence phoneNumber) {
+        int length = phoneNumber.length();
+        int i = length > 0 && phoneNumber.charAt(0) == '+' ? 1 : 0;
+        int digits = 0;
+        boolean afterDigit = false;
+        for (; i < length; i++) {
+            char c = phoneNumber.charAt(i);
+            if (isDigit(c)) {
+                if (++digits > MAX_DIGITS) {
+                    return INVALID;
+                }
+                afterDigit = true;
+            } else if (afterDigit && isSeparator(c)) {
+                afterDigit = false;
+            } else {
+                return INVALID;
+            }
+        }
+        return afterDigit && digits >= MIN_DIGITS ? digits : INVALID;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '-' || c == '.' || c == '(' || c == ')';
+    }
+}
@@ -0,0 +1,12 @@
+package com.telco.phonenumberservice.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class PhoneNumberValidator implements ConstraintValidator<ValidPhoneNumber, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || PhoneNumberNormalizer.isValid(value);
+    }
+}
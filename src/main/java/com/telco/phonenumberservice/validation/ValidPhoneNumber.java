@@ -0,0 +1,27 @@
+package com.telco.phonenumberservice.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * The annotated value must be a phone number accepted by {@link PhoneNumberNormalizer}.
+ * Null values are considered valid.
+ */
+@Documented
+@Constraint(validatedBy = PhoneNumberValidator.class)
+@Target({FIELD, PARAMETER, TYPE_USE})
+@Retention(RUNTIME)
+public @interface ValidPhoneNumber {
+    String message() default "Invalid phone number format";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,6 @@
+-- Enforces the uniqueness the PhoneNumber entity already assumes and backs findByNumber.
+CREATE UNIQUE INDEX ux_phone_number_number ON phone_number (number);
+
+-- Serves lookups by customer_id on its own (leading column) and covers the
+-- per-customer number and status reads without touching the table rows.
+CREATE INDEX ix_phone_number_customer_number_active ON phone_number (customer_id, number, is_active);
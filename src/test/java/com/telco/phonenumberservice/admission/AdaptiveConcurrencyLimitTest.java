@@ -0,0 +1,75 @@
+package com.telco.phonenumberservice.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20, TARGET_NANOS, clock::get);
+
+    /**
+     * Test Scenario: Admit requests up to the limit and one more
+     * Expected Outcome: The extra request is turned away until an admitted one is released
+     */
+    @Test
+    void tryAcquire_atLimit_shouldReject_untilRelease() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        limit.release(TARGET_NANOS / 2);
+
+        assertTrue(limit.tryAcquire());
+    }
+
+    /**
+     * Test Scenario: Fast requests complete while the limit is fully used
+     * Expected Outcome: The limit grows by about one per round of requests, up to the maximum
+     */
+    @Test
+    void release_fastRequestsAtLimit_shouldIncrease_limit() {
+        for (int round = 0; round < 100; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(TARGET_NANOS / 2);
+            }
+        }
+
+        assertEquals(20, limit.limit());
+    }
+
+    /**
+     * Test Scenario: Requests slower than the target complete, some within one target interval
+     * Expected Outcome: The limit is cut once per interval, and never below the minimum
+     */
+    @Test
+    void release_slowRequests_shouldDecrease_limitOncePerInterval() {
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(TARGET_NANOS * 2);
+        limit.release(TARGET_NANOS * 2);
+
+        assertEquals(9, limit.limit());
+
+        for (int i = 0; i < 50; i++) {
+            clock.addAndGet(TARGET_NANOS);
+            limit.tryAcquire();
+            limit.release(TARGET_NANOS * 2);
+        }
+
+        assertEquals(2, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+}
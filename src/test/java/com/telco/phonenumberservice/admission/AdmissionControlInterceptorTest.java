@@ -0,0 +1,104 @@
+package com.telco.phonenumberservice.admission;
+
+import com.telco.phonenumberservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlInterceptorTest {
+
+    private static final Duration TARGET = Duration.ofMillis(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(Endpoints.class,
+            1_000_000, 1_000_000, 10, 2, 20, TARGET, Duration.ofSeconds(1), meterRegistry, clock::get);
+
+    private final HandlerMethod stream = handlerMethod("stream");
+
+    private final HandlerMethod page = handlerMethod("page");
+
+    /**
+     * Test Scenario: Streams that take ten times the latency target run alongside pages that take half of it
+     * Expected Outcome: The limit of the streaming endpoint stays at the initial limit instead of falling
+     * to the minimum, and the limit of the pages still grows
+     */
+    @Test
+    void afterCompletion_longStreamsMixedWithShortRequests_shouldKeep_streamingLimit() {
+        for (int round = 0; round < 50; round++) {
+            List<MockHttpServletRequest> streams = admit(stream, 5);
+            List<MockHttpServletRequest> pages = admit(page, 5);
+            clock.addAndGet(TARGET.toNanos() / 2);
+            complete(pages, page);
+            clock.addAndGet(TARGET.toNanos() * 10);
+            complete(streams, stream);
+        }
+
+        assertEquals(10, limit("stream"));
+        assertTrue(limit("page") > 10);
+    }
+
+    /**
+     * Test Scenario: Open streams up to the limit of the streaming endpoint and one more
+     * Expected Outcome: The extra stream is turned away, so streams are still bounded
+     */
+    @Test
+    void preHandle_streamsAtLimit_shouldThrow_ServiceUnavailableException() {
+        admit(stream, 10);
+
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), stream))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private List<MockHttpServletRequest> admit(HandlerMethod handler, int requests) {
+        List<MockHttpServletRequest> admitted = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler));
+            admitted.add(request);
+        }
+        return admitted;
+    }
+
+    private void complete(List<MockHttpServletRequest> requests, HandlerMethod handler) {
+        requests.forEach(request -> interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null));
+    }
+
+    private double limit(String endpoint) {
+        return meterRegistry.get(AdmissionControlInterceptor.LIMIT_NAME).tag("endpoint", endpoint).gauge().value();
+    }
+
+    private static HandlerMethod handlerMethod(String name) {
+        try {
+            return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Endpoints {
+
+        public ResponseEntity<StreamingResponseBody> stream() {
+            return ResponseEntity.ok(outputStream -> outputStream.write('x'));
+        }
+
+        public Callable<ResponseEntity<String>> page() {
+            return () -> ResponseEntity.ok("page");
+        }
+    }
+}
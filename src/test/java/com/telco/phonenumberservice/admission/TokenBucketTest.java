@@ -0,0 +1,51 @@
+package com.telco.phonenumberservice.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    /**
+     * Test Scenario: Take tokens from a full bucket of 5 refilled at 10 per second
+     * Expected Outcome: 5 tokens are handed out at once, the 6th after the next refill, 100 ms later
+     */
+    @Test
+    void tryAcquire_emptyBucket_shouldReject_untilRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    /**
+     * Test Scenario: Leave an emptied bucket unused for longer than it takes to fill it
+     * Expected Outcome: It holds no more than its burst
+     */
+    @Test
+    void tryAcquire_idleBucket_shouldHold_atMostBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+        while (bucket.tryAcquire() == 0) {
+            // empty the bucket
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+}
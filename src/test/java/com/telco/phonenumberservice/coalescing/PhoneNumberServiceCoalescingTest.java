@@ -0,0 +1,137 @@
+package com.telco.phonenumberservice.coalescing;
+
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import com.telco.phonenumberservice.service.PhoneNumberVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhoneNumberServiceCoalescingTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PhoneNumberVersions phoneNumberVersions = new PhoneNumberVersions();
+
+    private final InactivePhoneNumbers inactivePhoneNumbers = new InactivePhoneNumbers(phoneNumberVersions);
+
+    private final PhoneNumberService phoneNumberService = proxy(inactivePhoneNumbers);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test Scenario: A number is activated while a stream of inactive numbers is being read, then the
+     * same stream is asked for again, as the controller does after reading the new version for the ETag
+     * Expected Outcome: A call made before the activation shares the running read; the call made after
+     * it reads on its own and does not get the activated number
+     */
+    @Test
+    void streamPhoneNumbers_afterActivation_shouldNotShare_readStartedBefore() throws Exception {
+        Future<List<String>> before = executor.submit(() -> streamInactive());
+        assertTrue(inactivePhoneNumbers.readStarted.await(10, TimeUnit.SECONDS));
+        Future<List<String>> joined = executor.submit(() -> streamInactive());
+        awaitCoalesced(1);
+
+        inactivePhoneNumbers.activate("+61400000002");
+        List<String> after = executor.submit(() -> streamInactive()).get(10, TimeUnit.SECONDS);
+        inactivePhoneNumbers.release.countDown();
+
+        assertEquals(List.of("+61400000001", "+61400000003"), after);
+        assertEquals(List.of("+61400000001", "+61400000002", "+61400000003"), before.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of("+61400000001", "+61400000002", "+61400000003"), joined.get(10, TimeUnit.SECONDS));
+        assertEquals(2, inactivePhoneNumbers.reads.get());
+        assertEquals(1, coalesced());
+    }
+
+    private List<String> streamInactive() {
+        List<String> received = new ArrayList<>();
+        phoneNumberService.streamPhoneNumbers("+614", false, received::add);
+        return received;
+    }
+
+    private double coalesced() {
+        return meterRegistry.find(PhoneNumberServiceCoalescing.COALESCED_NAME).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private void awaitCoalesced(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalesced() < calls) {
+            assertTrue(System.nanoTime() < deadline, "Call did not join the running read");
+            Thread.sleep(1);
+        }
+    }
+
+    private PhoneNumberService proxy(PhoneNumberService target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new PhoneNumberServiceCoalescing(meterRegistry, phoneNumberVersions, 1_000_000));
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Streams the inactive phone numbers as they were when the read started; the first read waits for
+     * {@code release} after it has started. Activations bump the version once they are done, as
+     * PhoneNumberService does after the commit.
+     */
+    static class InactivePhoneNumbers extends PhoneNumberService {
+
+        private final PhoneNumberVersions phoneNumberVersions;
+
+        private final Set<String> inactive = new ConcurrentSkipListSet<>(
+                Set.of("+61400000001", "+61400000002", "+61400000003"));
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        private final CountDownLatch readStarted = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        InactivePhoneNumbers(PhoneNumberVersions phoneNumberVersions) {
+            super(null, null, phoneNumberVersions, Optional.empty());
+            this.phoneNumberVersions = phoneNumberVersions;
+        }
+
+        void activate(String phoneNumber) {
+            inactive.remove(phoneNumber);
+            phoneNumberVersions.phoneNumbersChanged();
+        }
+
+        @Override
+        public void streamPhoneNumbers(String prefix, Boolean active, Consumer<String> consumer) {
+            Set<String> snapshot = new TreeSet<>(inactive);
+            if (reads.incrementAndGet() == 1) {
+                readStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            snapshot.forEach(consumer);
+        }
+    }
+}
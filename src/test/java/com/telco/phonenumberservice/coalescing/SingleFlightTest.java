@@ -0,0 +1,143 @@
+package com.telco.phonenumberservice.coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test Scenario: Several callers ask for the same key while the first load is still running
+     * Expected Outcome: The load runs once and every caller gets its result
+     */
+    @Test
+    void execute_concurrentCalls_shouldShare_oneLoad() throws Exception {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>();
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int caller = 0; caller < CALLERS; caller++) {
+            results.add(executor.submit(() -> unchecked(() -> singleFlight.execute("telco01", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return List.of("+61412345678");
+            }, coalesced::incrementAndGet))));
+        }
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<List<String>> result : results) {
+            assertEquals(List.of("+61412345678"), result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(List.of(), unchecked(() -> singleFlight.execute("telco01", List::of, coalesced::incrementAndGet)));
+        assertEquals(CALLERS - 1, coalesced.get());
+    }
+
+    /**
+     * Test Scenario: Several callers stream the same list while the first read is still running
+     * Expected Outcome: The list is read once and every caller gets every number, in order
+     */
+    @Test
+    void stream_concurrentCalls_shouldReplay_oneRead() throws Exception {
+        SingleFlightStreams<String> streams = new SingleFlightStreams<>(1_000_000);
+        List<String> phoneNumbers = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            phoneNumbers.add("+6141" + (1_000_000 + i));
+        }
+        phoneNumbers.add("0412 unpackable");
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int caller = 0; caller < CALLERS; caller++) {
+            results.add(executor.submit(() -> {
+                List<String> received = new ArrayList<>();
+                return unchecked(() -> {
+                    streams.stream("all", received::add, consumer -> {
+                        loads.incrementAndGet();
+                        phoneNumbers.subList(0, 2000).forEach(consumer);
+                        release.await();
+                        phoneNumbers.subList(2000, phoneNumbers.size()).forEach(consumer);
+                    }, coalesced::incrementAndGet);
+                    return received;
+                });
+            }));
+        }
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<List<String>> result : results) {
+            assertEquals(phoneNumbers, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * Test Scenario: The shared load fails while other callers wait for it
+     * Expected Outcome: Every caller gets the failure of the load
+     */
+    @Test
+    void execute_failingLoad_shouldThrow_toEveryCaller() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        List<Future<String>> results = new ArrayList<>();
+        for (int caller = 0; caller < CALLERS; caller++) {
+            results.add(executor.submit(() -> {
+                try {
+                    return singleFlight.execute("telco01", () -> {
+                        release.await();
+                        throw new IllegalStateException("database down");
+                    }, coalesced::incrementAndGet);
+                } catch (IllegalStateException e) {
+                    return e.getMessage();
+                } catch (Throwable throwable) {
+                    return throwable.toString();
+                }
+            }));
+        }
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("database down", result.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static <T> T unchecked(SingleFlight.Load<T> call) throws Exception {
+        try {
+            return call.load();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    private void awaitCoalesced(int callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalesced.get() < callers) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not join the running load");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.telco.phonenumberservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+public class AotSwitchesCheckTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    /**
+     * Test Scenario: Run the AOT build, made with coalescing on and the rest off, with the same switches
+     * Expected Outcome: Startup goes on
+     */
+    @Test
+    void afterSingletonsInstantiated_switchesMatchBuild_shouldPass() {
+        beanFactory.registerBeanDefinition("coalescingConfig", new RootBeanDefinition(CoalescingConfig.class));
+        environment.setProperty("phone-number-service.coalescing.enabled", "true");
+        environment.setProperty("phone-number-service.index.enabled", "false");
+
+        assertDoesNotThrow(() -> new AotSwitchesCheck(beanFactory, environment, true).afterSingletonsInstantiated());
+    }
+
+    /**
+     * Test Scenario: Run the same AOT build with the replicas turned on and coalescing turned off
+     * Expected Outcome: Startup fails, naming both switches
+     */
+    @Test
+    void afterSingletonsInstantiated_switchesDisagreeWithBuild_shouldThrow_IllegalStateException() {
+        beanFactory.registerBeanDefinition("coalescingConfig", new RootBeanDefinition(CoalescingConfig.class));
+        environment.setProperty("phone-number-service.coalescing.enabled", "false");
+        environment.setProperty("phone-number-service.replicas.enabled", "true");
+
+        assertThatThrownBy(() -> new AotSwitchesCheck(beanFactory, environment, true).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("phone-number-service.replicas.enabled=true (AOT build: false)")
+                .hasMessageContaining("phone-number-service.coalescing.enabled=false (AOT build: true)");
+    }
+
+    /**
+     * Test Scenario: Start without the AOT initializers, with switches the bean factory does not reflect
+     * Expected Outcome: Nothing is checked, since the conditions are evaluated at startup
+     */
+    @Test
+    void afterSingletonsInstantiated_withoutAot_shouldPass() {
+        environment.setProperty("phone-number-service.sharding.enabled", "true");
+
+        assertDoesNotThrow(() -> new AotSwitchesCheck(beanFactory, environment, false).afterSingletonsInstantiated());
+    }
+}
@@ -2,6 +2,10 @@ package com.telco.phonenumberservice.controller;
 
 import com.telco.phonenumberservice.exception.IllegalStateException;
 import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.service.ActivationStatus;
+import com.telco.phonenumberservice.service.BatchActivationResponseDto;
+import com.telco.phonenumberservice.service.PhoneNumberActivationResultDto;
+import com.telco.phonenumberservice.service.PhoneNumberPageDto;
 import com.telco.phonenumberservice.service.PhoneNumberResponseDto;
 import com.telco.phonenumberservice.service.PhoneNumberService;
 import org.junit.jupiter.api.Test;
@@ -10,16 +14,25 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +51,7 @@ public class PhoneNumberControllerTest {
     private static String GET_ALL_PHONE_NUMBERS_PATH = "/v{version}/phoneNumbers";
     private static String GET_ALL_PHONE_NUMBERS_BY_CUSTOMER_PATH = "/v{version}/customers/{customerId}/phone-numbers";
     private static String ACTIVATE_PHONE_NUMBER_PATH = "/v{version}/phone-numbers/{phoneNumber}/activate";
+    private static String BATCH_ACTIVATE_PHONE_NUMBERS_PATH = "/v{version}/phone-numbers:batchActivate";
 
     /**
      * Test for the GET /v1/phoneNumbers endpoint.
@@ -50,16 +64,139 @@ public class PhoneNumberControllerTest {
      */
     @Test
     void getAllPhoneNumbers_validRequest_returnSuccess() throws Exception {
-        when(phoneNumberService.getAllPhoneNumbers())
-                .thenReturn(List.of("1234567890", "9876543210", "5556665556"));
+        streamPhoneNumbers("1234567890", "9876543210", "5556665556");
 
         MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_PATH, 1));
         mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(greaterThan(0)));
     }
 
+    /**
+     * Test for the GET /v1/phoneNumbers endpoint with an NDJSON Accept header.
+     *
+     * This test verifies that the controller responds with:
+     * - HTTP Status 200 OK
+     * - One JSON string per line
+     */
+    @Test
+    void getAllPhoneNumbers_ndjsonRequested_returnOneNumberPerLine() throws Exception {
+        streamPhoneNumbers("1234567890", "9876543210");
+
+        MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_PATH, 1).accept(MediaType.APPLICATION_NDJSON));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("\"1234567890\"\n\"9876543210\"\n"));
+    }
+
+    /**
+     * Test for the GET /v1/phoneNumbers endpoint with a CBOR Accept header.
+     *
+     * This test verifies that the controller responds with:
+     * - HTTP Status 200 OK
+     * - A CBOR list that decodes to the same phone numbers, including one that cannot be packed
+     * - An ETag of its own, distinct from the JSON one
+     */
+    @Test
+    void getAllPhoneNumbers_cborRequested_returnPackedNumbers() throws Exception {
+        when(phoneNumberService.getPhoneNumbersVersion()).thenReturn("e1-7");
+        streamPhoneNumbers("+61412345678", "+61412345679", "0412345678", "1-800-FLOWERS");
+
+        MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_PATH, 1).accept(MediaType.APPLICATION_CBOR));
+        MvcResult result = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-7-cbor\""))
+                .andReturn();
+        assertEquals(List.of("+61412345678", "+61412345679", "0412345678", "1-800-FLOWERS"),
+                PhoneNumberCborEncoding.decode(result.getResponse().getContentAsByteArray()));
+    }
+
+    /**
+     * Test for the GET /v1/phoneNumbers?after=...&limit=... endpoint.
+     *
+     * This test verifies that the controller responds with:
+     * - HTTP Status 200 OK
+     * - The page of phone numbers and the cursor of the next page
+     */
+    @Test
+    void getPhoneNumbersPage_validRequest_returnPageWithNextCursor() throws Exception {
+        when(phoneNumberService.getPhoneNumbersPage("1234567890", 2))
+                .thenReturn(PhoneNumberPageDto.builder()
+                        .phoneNumbers(List.of("5556665556", "9876543210"))
+                        .nextCursor("9876543210")
+                        .build());
+
+        MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_PATH, 1)
+                .param("after", "1234567890")
+                .param("limit", "2"));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phoneNumbers.length()").value(equalTo(2)))
+                .andExpect(jsonPath("$.nextCursor").value("9876543210"));
+    }
+
+    /**
+     * Test for the GET /v1/phoneNumbers?prefix=...&active=...&limit=... endpoint.
+     *
+     * This test verifies that a prefix and status search is handed to the PhoneNumberService
+     * and responds with the matching page.
+     */
+    @Test
+    void getPhoneNumbersPage_prefixAndStatus_returnMatchingPage() throws Exception {
+        when(phoneNumberService.searchPhoneNumbersPage("+6144", false, null, 100))
+                .thenReturn(PhoneNumberPageDto.builder()
+                        .phoneNumbers(List.of("+61440000001", "+61440000003"))
+                        .build());
+
+        MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_PATH, 1)
+                .param("prefix", "+6144")
+                .param("active", "false")
+                .param("limit", "100"));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phoneNumbers.length()").value(equalTo(2)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Test for the GET /v1/phoneNumbers?prefix=... endpoint.
+     *
+     * This test verifies that when the API is called with an invalid prefix or status
+     * the controller responds with:
+     * - HTTP Status 400 BAD REQUEST
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "+, true",
+            "61a4, true",
+            "+6144, maybe"
+    })
+    void getPhoneNumbersPage_invalidSearch_shouldReturnBadRequest(String prefix, String active) throws Exception {
+        mockMvc.perform(get(GET_ALL_PHONE_NUMBERS_PATH, 1)
+                        .param("prefix", prefix)
+                        .param("active", active)
+                        .param("limit", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test for the GET /v1/phoneNumbers?limit=... endpoint.
+     *
+     * This test verifies that when the API is called with a limit outside the allowed range
+     * the controller responds with:
+     * - HTTP Status 400 BAD REQUEST
+     */
+    @ParameterizedTest
+    @CsvSource({"0", "1001", "abc"})
+    void getPhoneNumbersPage_invalidLimit_shouldReturnBadRequest(String limit) throws Exception {
+        mockMvc.perform(get(GET_ALL_PHONE_NUMBERS_PATH, 1).param("limit", limit))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Test for the GET /v1/customers/{customerId}/phone-numbers endpoint.
      *
@@ -82,6 +219,64 @@ public class PhoneNumberControllerTest {
                 .andExpect(jsonPath("$.length()").value(equalTo(2)));
     }
 
+    /**
+     * Test for the GET /v1/phoneNumbers endpoint with an If-None-Match header.
+     *
+     * This test verifies that when the client already holds the current version of the list,
+     * the controller responds with:
+     * - HTTP Status 304 NOT MODIFIED
+     * - The current ETag, without streaming the phone numbers
+     */
+    @Test
+    void getAllPhoneNumbers_unchangedList_returnNotModified() throws Exception {
+        when(phoneNumberService.getPhoneNumbersVersion()).thenReturn("e1-7");
+
+        mockMvc.perform(get(GET_ALL_PHONE_NUMBERS_PATH, 1).header(HttpHeaders.IF_NONE_MATCH, "\"e1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-7\""));
+        verify(phoneNumberService, never()).streamAllPhoneNumbers(any());
+    }
+
+    /**
+     * Test for the GET /v1/customers/{customerId}/phone-numbers endpoint.
+     *
+     * This test verifies that the response carries the ETag of the current version of the customer list,
+     * and that a request with a stale If-None-Match header gets the full list.
+     */
+    @Test
+    void getAllPhoneNumbersByCustomer_changedList_returnListWithETag() throws Exception {
+        String testCustomerId = "cust123";
+        when(phoneNumberService.getCustomerPhoneNumbersVersion(testCustomerId)).thenReturn("e1-2");
+        when(phoneNumberService.getAllPhoneNumbersByCustomer(testCustomerId))
+                .thenReturn(List.of("1234567890", "9876543210"));
+
+        MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_BY_CUSTOMER_PATH, 1, testCustomerId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"e1-1\""));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-2\""))
+                .andExpect(jsonPath("$.length()").value(equalTo(2)));
+    }
+
+    /**
+     * Test for the GET /v1/customers/{customerId}/phone-numbers endpoint with an If-None-Match header.
+     *
+     * This test verifies that when the client already holds the current version of the customer list,
+     * the controller responds with HTTP Status 304 NOT MODIFIED without loading the list.
+     */
+    @Test
+    void getAllPhoneNumbersByCustomer_unchangedList_returnNotModified() throws Exception {
+        String testCustomerId = "cust123";
+        when(phoneNumberService.getCustomerPhoneNumbersVersion(testCustomerId)).thenReturn("e1-2");
+
+        MvcResult mvcResult = getMvcResult(get(GET_ALL_PHONE_NUMBERS_BY_CUSTOMER_PATH, 1, testCustomerId)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"e1-2\""));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"e1-2\""));
+        verify(phoneNumberService, never()).getAllPhoneNumbersByCustomer(any());
+    }
+
     /**
      * Test for the GET /v1/customers/{customerId}/phone-numbers endpoint.
      *
@@ -132,6 +327,28 @@ public class PhoneNumberControllerTest {
                 .andExpect(jsonPath("$.active").value(true));
     }
 
+    /**
+     * Test for the PATCH /v1/phone-numbers/{phoneNumber}/activate endpoint.
+     *
+     * This test verifies that a phone number formatted with separators passes validation
+     * and is handed to the PhoneNumberService, which returns it in canonical form.
+     */
+    @Test
+    void activatePhoneNumber_formattedNumber_returnCanonicalNumber() throws Exception {
+        String formattedPhoneNumber = "+61 412-345-678";
+        when(phoneNumberService.activatePhoneNumber(formattedPhoneNumber))
+                .thenReturn(PhoneNumberResponseDto.builder()
+                        .isActive(true)
+                        .phoneNumber("+61412345678")
+                        .build());
+
+        MvcResult mvcResult = getMvcResult(patch(ACTIVATE_PHONE_NUMBER_PATH, 1, formattedPhoneNumber));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phoneNumber").value("+61412345678"))
+                .andExpect(jsonPath("$.active").value(true));
+    }
+
     /**
      * Test for the PATCH /v1/phone-numbers/{phoneNumber}/activate endpoint.
      *
@@ -189,13 +406,79 @@ public class PhoneNumberControllerTest {
             "1234_5678", //special char in number
             "0", //single digit zero
             "%^&*()$#@", //all special chars
-            "123abc456def789" //numbers with chars
+            "123abc456def789", //numbers with chars
+            "61  412345678", //consecutive separators
+            "1111111111111111111a" //long digit run ending in a char
     })
     void activatePhoneNumber_invalidTooLong_shouldReturnBadRequest(String badPhoneNumber) throws Exception {
         mockMvc.perform(patch(ACTIVATE_PHONE_NUMBER_PATH, 1, badPhoneNumber))
                 .andExpect(status().isBadRequest());
     }
 
+    /**
+     * Test for the POST /v1/phone-numbers:batchActivate endpoint.
+     *
+     * This test verifies that when the PhoneNumberService processes the batch,
+     * the controller responds with:
+     * - HTTP Status 200 OK
+     * - The activation status of every requested phone number
+     */
+    @Test
+    void activatePhoneNumbers_validRequest_returnResultPerNumber() throws Exception {
+        when(phoneNumberService.activatePhoneNumbers(List.of("1234567890", "9876543210", "0000000000")))
+                .thenReturn(BatchActivationResponseDto.builder()
+                        .results(List.of(
+                                result("1234567890", ActivationStatus.ACTIVATED),
+                                result("9876543210", ActivationStatus.ALREADY_ACTIVE),
+                                result("0000000000", ActivationStatus.NOT_FOUND)))
+                        .build());
+
+        MvcResult mvcResult = getMvcResult(post(BATCH_ACTIVATE_PHONE_NUMBERS_PATH, 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"phoneNumbers\": [\"1234567890\", \"9876543210\", \"0000000000\"]}"));
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(equalTo(3)))
+                .andExpect(jsonPath("$.results[0].status").value("ACTIVATED"))
+                .andExpect(jsonPath("$.results[1].status").value("ALREADY_ACTIVE"))
+                .andExpect(jsonPath("$.results[2].status").value("NOT_FOUND"));
+    }
+
+    /**
+     * Test for the POST /v1/phone-numbers:batchActivate endpoint.
+     *
+     * This test verifies that when the API is called with an empty batch or an invalid phone number
+     * the controller responds with:
+     * - HTTP Status 400 BAD REQUEST
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "{\"phoneNumbers\": []}",
+            "{\"phoneNumbers\": [\"1234_5678\"]}",
+            "{\"phoneNumbers\": "
+    })
+    void activatePhoneNumbers_invalidRequest_shouldReturnBadRequest(String body) throws Exception {
+        mockMvc.perform(post(BATCH_ACTIVATE_PHONE_NUMBERS_PATH, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static PhoneNumberActivationResultDto result(String phoneNumber, ActivationStatus status) {
+        return PhoneNumberActivationResultDto.builder()
+                .phoneNumber(phoneNumber)
+                .status(status)
+                .build();
+    }
+
+    private void streamPhoneNumbers(String... phoneNumbers) {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            Arrays.stream(phoneNumbers).forEach(consumer);
+            return null;
+        }).when(phoneNumberService).streamAllPhoneNumbers(any());
+    }
+
     private MvcResult getMvcResult(MockHttpServletRequestBuilder request) throws Exception {
         return mockMvc.perform(request)
                 .andExpect(request().asyncStarted())
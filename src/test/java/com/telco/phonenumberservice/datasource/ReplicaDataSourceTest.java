@@ -0,0 +1,173 @@
+package com.telco.phonenumberservice.datasource;
+
+import com.telco.phonenumberservice.service.PhoneNumberPageDto;
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import com.telco.phonenumberservice.service.PhoneNumberVersions;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes transactions over three separate in-memory H2 databases, each of which knows its own name.
+ */
+public class ReplicaDataSourceTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private final PrimaryPinning primaryPinning = new PrimaryPinning(Duration.ofMinutes(1));
+
+    private ReplicaDataSource replicaDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate readWriteTransaction;
+
+    @AfterEach
+    void tearDown() {
+        primaryPinning.unbind();
+        if (replicaDataSource != null) {
+            replicaDataSource.close();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Test Scenario: Run read-only and read-write transactions with round-robin balancing
+     * Expected Outcome: Read-only transactions take turns on the replicas, read-write ones use the primary
+     */
+    @Test
+    void getConnection_roundRobin_shouldSend_readsToReplicasAndWritesToPrimary() {
+        route(ReplicaBalancing.ROUND_ROBIN);
+
+        assertEquals(List.of("replica0", "replica1", "replica0"),
+                List.of(readOnlyDatabaseName(), readOnlyDatabaseName(), readOnlyDatabaseName()));
+        assertEquals("primary", readWriteTransaction.execute(status -> databaseName()));
+    }
+
+    /**
+     * Test Scenario: A caller reads after it committed a write, while another caller reads too
+     * Expected Outcome: The caller that wrote reads from the primary, the other one from a replica
+     */
+    @Test
+    void getConnection_afterWrite_shouldPin_writingCallerToPrimary() {
+        route(ReplicaBalancing.ROUND_ROBIN);
+
+        primaryPinning.bind("writer");
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE whoami SET writes = writes + 1"));
+        String writerReadsFrom = readOnlyDatabaseName();
+        primaryPinning.bind("reader");
+        String readerReadsFrom = readOnlyDatabaseName();
+
+        assertEquals("primary", writerReadsFrom);
+        assertTrue(readerReadsFrom.startsWith("replica"));
+    }
+
+    /**
+     * Test Scenario: Another caller commits a write that the replicas have not applied yet, then a caller
+     * reads a page of phone numbers, whose ETag already has the version bumped by the write, and an export
+     * Expected Outcome: The page is read from the primary and holds the write; the export reads a replica
+     */
+    @Test
+    void getConnection_versionedReadWhileReplicasLag_shouldRead_primary() {
+        route(ReplicaBalancing.ROUND_ROBIN);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new DatabaseNamePages(() -> readOnlyTransaction.execute(status -> databaseNameAndWrites())));
+        proxyFactory.addAspect(new PrimaryReadAspect(primaryPinning));
+        PhoneNumberService phoneNumberService = proxyFactory.getProxy();
+
+        primaryPinning.bind("writer");
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE whoami SET writes = writes + 1"));
+        primaryPinning.bind("reader");
+
+        assertEquals(List.of("primary:1"), phoneNumberService.getPhoneNumbersPage(null, 10).getPhoneNumbers());
+        assertEquals(List.of("replica0:0"), List.of(readOnlyTransaction.execute(status -> databaseNameAndWrites())));
+        assertFalse(primaryPinning.isPinned());
+    }
+
+    /**
+     * Test Scenario: Pick a replica with least-connections balancing while one replica holds a connection
+     * Expected Outcome: The idle replica is picked
+     */
+    @Test
+    void select_leastConnections_shouldPick_idleReplica() throws Exception {
+        route(ReplicaBalancing.LEAST_CONNECTIONS);
+
+        try (var busy = pools.get(1).getConnection()) {
+            assertSame(pools.get(2), replicaDataSource.select());
+            assertSame(pools.get(2), replicaDataSource.select());
+        }
+    }
+
+    private void route(ReplicaBalancing balancing) {
+        HikariDataSource primary = database("primary");
+        List<HikariDataSource> replicas = List.of(database("replica0"), database("replica1"));
+        replicaDataSource = new ReplicaDataSource(primary, replicas, balancing, primaryPinning);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(primaryPinning);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        pools.add(dataSource);
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE whoami (name VARCHAR(20), writes INT)");
+        template.update("INSERT INTO whoami VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    private String readOnlyDatabaseName() {
+        return readOnlyTransaction.execute(status -> databaseName());
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private String databaseNameAndWrites() {
+        return jdbcTemplate.queryForObject("SELECT name || ':' || writes FROM whoami", String.class);
+    }
+
+    /**
+     * Pages holding the database they were read from, with the writes it has applied.
+     */
+    static class DatabaseNamePages extends PhoneNumberService {
+
+        private final Supplier<String> readDatabaseName;
+
+        DatabaseNamePages(Supplier<String> readDatabaseName) {
+            super(null, null, new PhoneNumberVersions(), Optional.empty());
+            this.readDatabaseName = readDatabaseName;
+        }
+
+        @Override
+        public PhoneNumberPageDto getPhoneNumbersPage(String after, int limit) {
+            return PhoneNumberPageDto.builder()
+                    .phoneNumbers(List.of(readDatabaseName.get()))
+                    .build();
+        }
+    }
+}
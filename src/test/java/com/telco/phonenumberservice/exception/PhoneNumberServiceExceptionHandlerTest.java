@@ -4,10 +4,14 @@ import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.UnexpectedTypeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class PhoneNumberServiceExceptionHandlerTest {
 
@@ -28,6 +32,17 @@ public class PhoneNumberServiceExceptionHandlerTest {
         assertEquals("Not Found", response.getBody().getErrorId());
     }
 
+    @Test
+    void handleNotFoundException_WithFixedMessage_ShouldReturnSharedResponse_WithoutStackTrace() {
+        NotFoundException ex = new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND);
+        ResponseEntity<ApiError> response = exceptionHandler.handleNotFoundException(ex);
+
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Phone Number not found.", response.getBody().getErrorMessage());
+        assertSame(response, exceptionHandler.handleNotFoundException(new NotFoundException(NotFoundException.PHONE_NUMBER_NOT_FOUND)));
+    }
+
     @Test
     void handleIllegalStateException_WithIllegalStateException_ShouldReturnBadRequest() {
         IllegalStateException ex = new IllegalStateException("Invalid state");
@@ -65,4 +80,14 @@ public class PhoneNumberServiceExceptionHandlerTest {
         assertEquals("Something went wrong", response.getBody().getErrorMessage());
         assertEquals("Internal Server Error", response.getBody().getErrorId());
     }
+
+    @Test
+    void handleTooManyRequestsException_ShouldReturnTooManyRequestsWithRetryAfter() {
+        TooManyRequestsException ex = new TooManyRequestsException("Too many requests from this client", Duration.ofSeconds(3));
+        ResponseEntity<ApiError> response = exceptionHandler.handleTooManyRequestsException(ex);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too Many Requests", response.getBody().getErrorId());
+    }
 }
@@ -0,0 +1,97 @@
+package com.telco.phonenumberservice.repository.phonenumber;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhoneNumberIndexTest {
+
+    private PhoneNumberIndex phoneNumberIndex;
+
+    @BeforeEach
+    void setUp() {
+        phoneNumberIndex = new PhoneNumberIndex();
+        phoneNumberIndex.replace(PhoneNumberIndex.builder()
+                .add("+61412345678", true)
+                .add("+61419876543", false)
+                .add("0412345678", false)
+                .add("412345678", true));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "+61412345678",
+            "0412345678",
+            "412345678",
+            "+0",
+            "999999999999999",
+            "+999999999999999"
+    })
+    void pack_validNumber_shouldRoundTrip(String phoneNumber) {
+        long packed = PhoneNumberIndex.pack(phoneNumber);
+
+        assertTrue(packed >= 0);
+        assertEquals(phoneNumber, PhoneNumberIndex.unpack(packed));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "''",
+            "+",
+            "1234567890123456",
+            "+61 412 345 678",
+            "12a4"
+    })
+    void pack_invalidNumber_shouldReturnNotPackable(String phoneNumber) {
+        assertEquals(PhoneNumberIndex.NOT_PACKABLE, PhoneNumberIndex.pack(phoneNumber));
+    }
+
+    @Test
+    void status_shouldDistinguishLeadingZerosAndPlusSign() {
+        assertEquals(PhoneNumberIndex.Status.ACTIVE, phoneNumberIndex.status("+61412345678"));
+        assertEquals(PhoneNumberIndex.Status.INACTIVE, phoneNumberIndex.status("0412345678"));
+        assertEquals(PhoneNumberIndex.Status.ACTIVE, phoneNumberIndex.status("412345678"));
+        assertEquals(PhoneNumberIndex.Status.NOT_FOUND, phoneNumberIndex.status("61412345678"));
+        assertEquals(PhoneNumberIndex.Status.NOT_FOUND, phoneNumberIndex.status("+61 412 345 678"));
+    }
+
+    @Test
+    void markActive_indexedNumber_shouldFlipStatus() {
+        assertTrue(phoneNumberIndex.markActive("+61419876543"));
+
+        assertEquals(PhoneNumberIndex.Status.ACTIVE, phoneNumberIndex.status("+61419876543"));
+        assertEquals(PhoneNumberIndex.Status.INACTIVE, phoneNumberIndex.status("0412345678"));
+        assertFalse(phoneNumberIndex.markActive("+61400000000"));
+    }
+
+    @Test
+    void status_withUnpackableStoredNumber_shouldReturnUnknownForUnpackableInput() {
+        phoneNumberIndex.replace(PhoneNumberIndex.builder()
+                .add("+61412345678", false)
+                .add("legacy-number", true));
+
+        assertEquals(PhoneNumberIndex.Status.UNKNOWN, phoneNumberIndex.status("other-legacy"));
+        assertEquals(PhoneNumberIndex.Status.NOT_FOUND, phoneNumberIndex.status("+61400000000"));
+        assertEquals(1, phoneNumberIndex.size());
+    }
+
+    @Test
+    void replace_manyNumbers_shouldKeepStatusOfEveryNumber() {
+        PhoneNumberIndex.Builder builder = PhoneNumberIndex.builder();
+        for (int i = 4999; i >= 0; i--) {
+            builder.add(String.format("+614%08d", i), i % 3 == 0);
+        }
+        phoneNumberIndex.replace(builder);
+
+        assertEquals(5000, phoneNumberIndex.size());
+        for (int i = 0; i < 5000; i++) {
+            PhoneNumberIndex.Status expected = i % 3 == 0
+                    ? PhoneNumberIndex.Status.ACTIVE
+                    : PhoneNumberIndex.Status.INACTIVE;
+            assertEquals(expected, phoneNumberIndex.status(String.format("+614%08d", i)));
+        }
+    }
+}
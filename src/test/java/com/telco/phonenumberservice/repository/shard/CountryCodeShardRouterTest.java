@@ -0,0 +1,46 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountryCodeShardRouterTest {
+
+    private final CountryCodeShardRouter shardRouter =
+            new CountryCodeShardRouter(4, Map.of("61", 1, "44", 2, "1", 3, "353", 2), 0);
+
+    @ParameterizedTest
+    @CsvSource({
+            "+61412345678, 1",
+            "+447700900001, 2",
+            "+12025550101, 3",
+            "+353851234567, 2",
+            "+4915112345678, 0",
+            "0412345678, 0",
+            "+6, 0"
+    })
+    void shardForNumber_shouldUse_countryCodeOrDefaultShard(String phoneNumber, int expectedShard) {
+        assertEquals(expectedShard, shardRouter.shardForNumber(phoneNumber));
+    }
+
+    @Test
+    void shardsForPrefix_shouldNarrow_toShardsThatMayHoldMatches() {
+        assertEquals(List.of(0, 1, 2, 3), shardRouter.shardsForPrefix(null));
+        assertEquals(List.of(0, 1, 2, 3), shardRouter.shardsForPrefix("+"));
+        assertEquals(List.of(1), shardRouter.shardsForPrefix("+6141"));
+        assertEquals(List.of(0, 2), shardRouter.shardsForPrefix("+3"));
+        assertEquals(List.of(0), shardRouter.shardsForPrefix("+49"));
+        assertEquals(List.of(0), shardRouter.shardsForPrefix("04"));
+    }
+
+    @Test
+    void constructor_unknownShard_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new CountryCodeShardRouter(2, Map.of("61", 2), 0));
+        assertThrows(IllegalArgumentException.class, () -> new CountryCodeShardRouter(2, Map.of(), 2));
+    }
+}
@@ -0,0 +1,122 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import com.telco.phonenumberservice.service.PhoneNumberPageDto;
+import com.telco.phonenumberservice.service.PhoneNumberService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the service on three in-memory H2 shards: +61 numbers on shard 0, +44 on shard 1 and +1 on shard 2.
+ */
+@SpringBootTest(properties = {
+        "phone-number-service.sharding.enabled=true",
+        "phone-number-service.sharding.urls=jdbc:h2:mem:shardtest0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shardtest1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shardtest2;DB_CLOSE_DELAY=-1",
+        "phone-number-service.sharding.country-codes=61=0,44=1,1=2",
+        "phone-number-service.sharding.prune-misplaced-numbers=true"
+})
+public class ShardRoutingAspectTest {
+
+    private static final String CUSTOMER_ID = "shard01";
+
+    @Autowired
+    PhoneNumberService phoneNumberService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int shard = 0; shard < 3; shard++) {
+            ShardContext.run(shard, () -> jdbcTemplate.update(
+                    "INSERT INTO customer (customer_id, name) VALUES (?, 'Shard Test')", CUSTOMER_ID));
+        }
+        insertPhoneNumber(0, "+61470000001");
+        insertPhoneNumber(1, "+447700900001");
+        insertPhoneNumber(2, "+12025550101");
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int shard = 0; shard < 3; shard++) {
+            ShardContext.run(shard, () -> {
+                jdbcTemplate.update("DELETE FROM phone_number WHERE customer_id = ?", CUSTOMER_ID);
+                jdbcTemplate.update("DELETE FROM customer WHERE customer_id = ?", CUSTOMER_ID);
+            });
+        }
+    }
+
+    /**
+     * Test Scenario: Stream all phone numbers while they are spread over three shards
+     * Expected Outcome: The numbers of every shard come back once, merged in number order
+     */
+    @Test
+    void streamAllPhoneNumbers_shouldMerge_everyShardInNumberOrder() {
+        List<String> phoneNumbers = new ArrayList<>();
+        phoneNumberService.streamAllPhoneNumbers(phoneNumbers::add);
+
+        assertEquals(phoneNumbers.stream().sorted().distinct().toList(), phoneNumbers);
+        assertTrue(phoneNumbers.containsAll(List.of("+12025550101", "+447700900001", "+61470000001", "+61412345678")));
+    }
+
+    /**
+     * Test Scenario: Page through all phone numbers, two at a time
+     * Expected Outcome: The pages hold the same numbers in the same order as the stream
+     */
+    @Test
+    void getPhoneNumbersPage_shouldMerge_pagesOfEveryShard() {
+        List<String> streamed = new ArrayList<>();
+        phoneNumberService.streamAllPhoneNumbers(streamed::add);
+
+        List<String> paged = new ArrayList<>();
+        String after = null;
+        do {
+            PhoneNumberPageDto page = phoneNumberService.getPhoneNumbersPage(after, 2);
+            paged.addAll(page.getPhoneNumbers());
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(streamed, paged);
+    }
+
+    /**
+     * Test Scenario: Search by a country code prefix and list the numbers of a customer spread over shards
+     * Expected Outcome: The search only returns numbers of that country; the customer gets all its numbers
+     */
+    @Test
+    void searchAndCustomerLookup_shouldFind_numbersOnTheirShards() {
+        assertEquals(List.of("+447700900001"),
+                phoneNumberService.searchPhoneNumbersPage("+44", null, null, 10).getPhoneNumbers());
+        assertEquals(List.of("+12025550101", "+447700900001", "+61470000001"),
+                phoneNumberService.getAllPhoneNumbersByCustomer(CUSTOMER_ID));
+    }
+
+    /**
+     * Test Scenario: Activate a British number given with separators
+     * Expected Outcome: The number is activated on shard 1, where it lives
+     */
+    @Test
+    void activatePhoneNumber_shouldWrite_toShardOfNumber() {
+        phoneNumberService.activatePhoneNumber("+44 7700 900001");
+
+        assertEquals(Boolean.TRUE, ShardContext.call(1, () -> jdbcTemplate.queryForObject(
+                "SELECT is_active FROM phone_number WHERE number = '+447700900001'", Boolean.class)));
+        assertEquals(0, ShardContext.call(0, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM phone_number WHERE number LIKE '+44%'", Integer.class)));
+    }
+
+    private void insertPhoneNumber(int shard, String phoneNumber) {
+        ShardContext.run(shard, () -> jdbcTemplate.update(
+                "INSERT INTO phone_number (id, number, is_active, customer_id) VALUES (RANDOM_UUID(), ?, FALSE, ?)",
+                phoneNumber, CUSTOMER_ID));
+    }
+}
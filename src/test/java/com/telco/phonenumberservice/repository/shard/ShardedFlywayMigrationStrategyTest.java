@@ -0,0 +1,67 @@
+package com.telco.phonenumberservice.repository.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prunes two in-memory H2 shards: +61 numbers belong on shard 0 and +44 numbers on shard 1.
+ */
+public class ShardedFlywayMigrationStrategyTest {
+
+    private final ShardRoutingDataSource shardRoutingDataSource = new ShardRoutingDataSource(
+            List.of(database("prune0"), database("prune1")), 0);
+
+    private final ShardedFlywayMigrationStrategy migrationStrategy = new ShardedFlywayMigrationStrategy(
+            shardRoutingDataSource, new CountryCodeShardRouter(2, Map.of("61", 0, "44", 1), 0), true, 2);
+
+    @AfterEach
+    void tearDown() {
+        shardRoutingDataSource.close();
+    }
+
+    /**
+     * Test Scenario: Prune a shard holding numbers of both shards, more than one chunk of each
+     * Expected Outcome: Every number of the other shard is deleted, and every number of this shard is kept
+     */
+    @Test
+    void pruneMisplacedNumbers_overSeveralChunks_shouldDelete_onlyNumbersOfOtherShards() {
+        JdbcTemplate shard0 = new JdbcTemplate(shardRoutingDataSource.shard(0));
+        for (String number : List.of("+447700900001", "+447700900002", "+447700900003",
+                "+61400000001", "+61400000002", "+61400000003")) {
+            shard0.update("INSERT INTO phone_number (number) VALUES (?)", number);
+        }
+
+        migrationStrategy.pruneMisplacedNumbers(0);
+
+        assertEquals(List.of("+61400000001", "+61400000002", "+61400000003"),
+                shard0.queryForList("SELECT number FROM phone_number ORDER BY number", String.class));
+    }
+
+    /**
+     * Test Scenario: Prune a shard without phone numbers
+     * Expected Outcome: Nothing happens
+     */
+    @Test
+    void pruneMisplacedNumbers_emptyShard_shouldDelete_nothing() {
+        migrationStrategy.pruneMisplacedNumbers(1);
+
+        assertEquals(0, new JdbcTemplate(shardRoutingDataSource.shard(1))
+                .queryForObject("SELECT COUNT(*) FROM phone_number", Integer.class));
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        new JdbcTemplate(dataSource).execute("CREATE TABLE phone_number (number VARCHAR(20) PRIMARY KEY)");
+        return dataSource;
+    }
+}
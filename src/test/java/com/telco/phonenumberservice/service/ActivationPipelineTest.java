@@ -0,0 +1,165 @@
+package com.telco.phonenumberservice.service;
+
+import com.telco.phonenumberservice.exception.AlreadyActiveException;
+import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.exception.ServiceUnavailableException;
+import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ActivationPipelineTest {
+
+    private final PhoneNumberService phoneNumberService = mock(PhoneNumberService.class);
+
+    private ActivationPipeline activationPipeline;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (activationPipeline != null) {
+            activationPipeline.close();
+        }
+    }
+
+    /**
+     * Test Scenario: Apply a batch that activates the same phone number twice and contains an unknown one
+     * Expected Outcome: Only the first request for the number activates it, the others get their own outcome
+     */
+    @Test
+    void apply_batchWithDuplicates_shouldActivateEachNumberOnce() {
+        activationPipeline = pipeline(Optional.empty(), 1, 10);
+        when(phoneNumberService.activatePhoneNumbers(List.of("1234567890", "1234567890", "0000000000")))
+                .thenReturn(BatchActivationResponseDto.builder()
+                        .results(List.of(
+                                result("1234567890", ActivationStatus.ACTIVATED),
+                                result("0000000000", ActivationStatus.NOT_FOUND)))
+                        .build());
+        List<ActivationRequestDto> batch = List.of(
+                pending("1", "1234567890"), pending("2", "1234567890"), pending("3", "0000000000"));
+
+        activationPipeline.apply(batch);
+
+        assertEquals(ActivationRequestStatus.ACTIVATED, status("1"));
+        assertEquals(ActivationRequestStatus.ALREADY_ACTIVE, status("2"));
+        assertEquals(ActivationRequestStatus.NOT_FOUND, status("3"));
+    }
+
+    /**
+     * Test Scenario: Apply a batch whose transaction fails
+     * Expected Outcome: Every request of the batch is marked as failed
+     */
+    @Test
+    void apply_failingBatch_shouldMarkRequestsFailed() {
+        activationPipeline = pipeline(Optional.empty(), 1, 10);
+        when(phoneNumberService.activatePhoneNumbers(anyList())).thenThrow(new RuntimeException("database down"));
+
+        activationPipeline.apply(List.of(pending("1", "1234567890")));
+
+        assertEquals(ActivationRequestStatus.FAILED, status("1"));
+    }
+
+    /**
+     * Test Scenario: Submit a formatted phone number to a running pipeline
+     * Expected Outcome: The request is accepted as pending with the canonical number, then applied
+     */
+    @Test
+    void submit_validNumber_shouldBeAppliedInBackground() throws InterruptedException {
+        activationPipeline = pipeline(Optional.empty(), 2, 10);
+        when(phoneNumberService.activatePhoneNumbers(List.of("+61412345678")))
+                .thenReturn(BatchActivationResponseDto.builder()
+                        .results(List.of(result("+61412345678", ActivationStatus.ACTIVATED)))
+                        .build());
+        activationPipeline.start();
+
+        ActivationRequestDto request = activationPipeline.submit("+61 412 345 678");
+
+        assertEquals("+61412345678", request.getPhoneNumber());
+        assertEquals(ActivationRequestStatus.PENDING, request.getStatus());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (status(request.getRequestId()) == ActivationRequestStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(ActivationRequestStatus.ACTIVATED, status(request.getRequestId()));
+    }
+
+    /**
+     * Test Scenario: Submit more activations than the queue of a shard can hold while its worker is busy
+     * Expected Outcome: The activation that does not fit is rejected with a 'ServiceUnavailableException'
+     */
+    @Test
+    void submit_fullQueue_shouldShedLoad() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        activationPipeline = pipeline(Optional.empty(), 1, 1);
+        when(phoneNumberService.activatePhoneNumbers(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return BatchActivationResponseDto.builder().results(List.of()).build();
+        });
+        activationPipeline.start();
+        try {
+            activationPipeline.submit("1234567890");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (activationPipeline.queueSize(0) > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            activationPipeline.submit("9876543210");
+
+            assertThatThrownBy(() -> activationPipeline.submit("5556665556"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Test Scenario: Submit phone numbers the index knows to be unknown or already active
+     * Expected Outcome: They are rejected right away and never queued
+     */
+    @Test
+    void submit_numbersRejectedByIndex_shouldNotBeQueued() {
+        PhoneNumberIndex phoneNumberIndex = new PhoneNumberIndex();
+        phoneNumberIndex.replace(PhoneNumberIndex.builder().add("9876543210", true));
+        activationPipeline = pipeline(Optional.of(phoneNumberIndex), 1, 10);
+        activationPipeline.start();
+
+        assertThatThrownBy(() -> activationPipeline.submit("0000000000"))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> activationPipeline.submit("9876543210"))
+                .isInstanceOf(AlreadyActiveException.class);
+        assertEquals(0, activationPipeline.queueSize(0));
+    }
+
+    private ActivationPipeline pipeline(Optional<PhoneNumberIndex> phoneNumberIndex, int shards, int queueCapacity) {
+        return new ActivationPipeline(phoneNumberService, phoneNumberIndex,
+                shards, queueCapacity, 100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+    }
+
+    private ActivationRequestStatus status(String requestId) {
+        return activationPipeline.getRequest(requestId).orElseThrow().getStatus();
+    }
+
+    private static ActivationRequestDto pending(String requestId, String phoneNumber) {
+        return ActivationRequestDto.builder()
+                .requestId(requestId)
+                .phoneNumber(phoneNumber)
+                .status(ActivationRequestStatus.PENDING)
+                .build();
+    }
+
+    private static PhoneNumberActivationResultDto result(String phoneNumber, ActivationStatus status) {
+        return PhoneNumberActivationResultDto.builder()
+                .phoneNumber(phoneNumber)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.telco.phonenumberservice.service;
+
+import com.telco.phonenumberservice.exception.IllegalStateException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+public class PhoneNumberInventoryServiceTest {
+
+    @Autowired
+    PhoneNumberInventoryService phoneNumberInventoryService;
+
+    @Autowired
+    PhoneNumberService phoneNumberService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Test Scenario: Import a CSV with valid, repeated and invalid rows, then export the tables
+     * Expected Outcome: Valid rows are merged with the last row for a number winning, invalid rows are
+     * reported by line, customer versions change and the export contains the imported rows
+     */
+    @Test
+    void importCsv_mixedRows_shouldImport_validRowsAndReport_invalidRows() throws Exception {
+        String customerVersion = phoneNumberService.getCustomerPhoneNumbersVersion("imp001");
+        String csv = """
+                customer_id,customer_name,number,is_active
+                imp001,Import One,+61 470 000 001,true
+                imp001,Import One,+61470000002,false
+                imp002,"Smith, Jane",,
+                bad!,Bad,+61470000003,true
+                imp001,Import One,12a,true
+                imp001,Import One,+61470000001,false
+                """;
+        try {
+            PhoneNumberImportResultDto result = phoneNumberInventoryService.importCsv(csvStream(csv));
+            StringWriter export = new StringWriter();
+            long exportedRows = phoneNumberInventoryService.exportCsv(export);
+
+            assertEquals(4, result.getRowsImported());
+            assertEquals(2, result.getRowsRejected());
+            assertEquals(List.of(
+                    "Line 5: customerId must be 1 to 8 alphanumeric characters",
+                    "Line 6: invalid phone number format"), result.getErrors());
+            assertEquals(List.of("+61470000001", "+61470000002"),
+                    phoneNumberService.getAllPhoneNumbersByCustomer("imp001"));
+            assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                    "SELECT is_active FROM phone_number WHERE number = '+61470000001'", Boolean.class));
+            assertNotEquals(customerVersion, phoneNumberService.getCustomerPhoneNumbersVersion("imp001"));
+            assertThat(export.toString())
+                    .startsWith(PhoneNumberInventoryService.CSV_HEADER + "\n")
+                    .contains("imp001,Import One,+61470000001,false\n")
+                    .contains("imp001,Import One,+61470000002,false\n")
+                    .contains("imp002,\"Smith, Jane\",,\n");
+            assertEquals(export.toString().lines().count() - 1, exportedRows);
+        } finally {
+            jdbcTemplate.update("DELETE FROM phone_number WHERE customer_id IN ('imp001', 'imp002')");
+            jdbcTemplate.update("DELETE FROM customer WHERE customer_id IN ('imp001', 'imp002')");
+        }
+    }
+
+    /**
+     * Test Scenario: Import a CSV without the expected header
+     * Expected Outcome: Should throw IllegalStateException before anything is imported, leaving the
+     * list versions, and so every client's ETag, unchanged
+     */
+    @Test
+    void importCsv_missingHeader_shouldThrow_IllegalStateException() {
+        String version = phoneNumberService.getPhoneNumbersVersion();
+        String customerVersion = phoneNumberService.getCustomerPhoneNumbersVersion("cust123");
+
+        assertThatThrownBy(() -> phoneNumberInventoryService.importCsv(csvStream("imp003,Import,+61470000004,true\n")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("CSV must start with the header " + PhoneNumberInventoryService.CSV_HEADER);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM customer WHERE customer_id = 'imp003'", Integer.class));
+        assertEquals(version, phoneNumberService.getPhoneNumbersVersion());
+        assertEquals(customerVersion, phoneNumberService.getCustomerPhoneNumbersVersion("cust123"));
+    }
+
+    /**
+     * Test Scenario: Split CSV lines with quoted fields, doubled quotes and an unclosed quote
+     * Expected Outcome: Quoted fields keep their commas and quotes, an unclosed quote is rejected
+     */
+    @Test
+    void parseCsvLine_quotedFields_shouldSplit_onUnquotedCommasOnly() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""),
+                PhoneNumberInventoryService.parseCsvLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+        assertNull(PhoneNumberInventoryService.parseCsvLine("a,\"b"));
+    }
+
+    private static InputStream csvStream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,22 +2,36 @@ package com.telco.phonenumberservice.service;
 
 import com.telco.phonenumberservice.exception.IllegalStateException;
 import com.telco.phonenumberservice.exception.NotFoundException;
+import com.telco.phonenumberservice.repository.customer.CustomerRepository;
 import com.telco.phonenumberservice.repository.phonenumber.PhoneNumberRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -30,19 +44,80 @@ public class PhoneNumberServiceTest {
     @MockitoSpyBean
     PhoneNumberRepository phoneNumberRepository;
 
+    @MockitoSpyBean
+    CustomerRepository customerRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCache(PhoneNumberService.CUSTOMER_PHONE_NUMBERS_CACHE).clear();
+    }
+
     /**
-     * Test Scenario: Fetch all phone numbers
-     * Expected Outcome: Should return a list containing all phone numbers exists in the database
+     * Test Scenario: Stream all phone numbers
+     * Expected Outcome: Should stream all phone numbers exists in the database, in number order
      */
     @Test
-    void getAllPhoneNumbers_validRequest_shouldReturn_phoneNumberList() {
-        List<String> phoneNumberList = phoneNumberService.getAllPhoneNumbers();
+    void streamAllPhoneNumbers_validRequest_shouldStream_allPhoneNumbersInOrder() {
+        List<String> phoneNumberList = new ArrayList<>();
+        phoneNumberService.streamAllPhoneNumbers(phoneNumberList::add);
 
-        verify(phoneNumberRepository, times(1)).findAll();
+        verify(phoneNumberRepository, times(1)).streamAllNumbers();
 
-        assertNotNull(phoneNumberList);
-        assertEquals(3, phoneNumberList.size());
-        assertTrue(phoneNumberList.contains("1234567890"));
+        assertEquals(List.of("1234567890", "5556665556", "9876543210"), phoneNumberList);
+    }
+
+    /**
+     * Test Scenario: Fetch phone numbers page by page
+     * Expected Outcome: Each page continues after the cursor of the previous one and the last page has no cursor
+     */
+    @Test
+    void getPhoneNumbersPage_validRequest_shouldReturn_pagesWithCursor() {
+        PhoneNumberPageDto firstPage = phoneNumberService.getPhoneNumbersPage(null, 2);
+
+        assertEquals(List.of("1234567890", "5556665556"), firstPage.getPhoneNumbers());
+        assertEquals("5556665556", firstPage.getNextCursor());
+
+        PhoneNumberPageDto lastPage = phoneNumberService.getPhoneNumbersPage(firstPage.getNextCursor(), 2);
+
+        assertEquals(List.of("9876543210"), lastPage.getPhoneNumbers());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    /**
+     * Test Scenario: Search phone numbers by prefix and status, one page at a time, and stream them by prefix
+     * Expected Outcome: Only numbers in the prefix range with the requested status are returned, in number order
+     */
+    @Test
+    void searchPhoneNumbers_prefixAndStatus_shouldReturn_matchingNumbersOnly() {
+        jdbcTemplate.update("INSERT INTO phone_number (id, customer_id, number, is_active) VALUES "
+                + "(RANDOM_UUID(), 'cust456', '+61440000001', FALSE), "
+                + "(RANDOM_UUID(), 'cust456', '+61440000002', TRUE), "
+                + "(RANDOM_UUID(), 'cust456', '+61440000003', FALSE), "
+                + "(RANDOM_UUID(), 'cust456', '+61450000001', FALSE)");
+        try {
+            PhoneNumberPageDto firstPage = phoneNumberService.searchPhoneNumbersPage("+6144", false, null, 1);
+            PhoneNumberPageDto lastPage = phoneNumberService.searchPhoneNumbersPage(
+                    "+6144", false, firstPage.getNextCursor(), 1);
+            List<String> streamed = new ArrayList<>();
+            phoneNumberService.streamPhoneNumbers("+6144", null, streamed::add);
+
+            assertEquals(List.of("+61440000001"), firstPage.getPhoneNumbers());
+            assertEquals("+61440000001", firstPage.getNextCursor());
+            assertEquals(List.of("+61440000003"), lastPage.getPhoneNumbers());
+            assertNull(lastPage.getNextCursor());
+            assertEquals(List.of("+61440000001", "+61440000002", "+61440000003"), streamed);
+        } finally {
+            jdbcTemplate.update("DELETE FROM phone_number WHERE number LIKE '+614%'");
+        }
     }
 
     /**
@@ -57,9 +132,25 @@ public class PhoneNumberServiceTest {
     void getAllPhoneNumbersByCustomer_validRequest_shouldReturn_phoneNumberList(String customerId, int expectedPhoneNumbers) {
         List<String> phoneNumberList = phoneNumberService.getAllPhoneNumbersByCustomer(customerId);
 
+        verify(customerRepository, times(1)).findPhoneNumbersByCustomerId(customerId);
+        verifyNoMoreInteractions(customerRepository, phoneNumberRepository);
+
         assertEquals(expectedPhoneNumbers, phoneNumberList.size());
     }
 
+    /**
+     * Test Scenario: Fetch the phone numbers of the same Customer twice
+     * Expected Outcome: The second call is served from the cache without querying the database
+     */
+    @Test
+    void getAllPhoneNumbersByCustomer_repeatedRequest_shouldBeServedFromCache() {
+        List<String> firstPhoneNumberList = phoneNumberService.getAllPhoneNumbersByCustomer("cust123");
+        List<String> secondPhoneNumberList = phoneNumberService.getAllPhoneNumbersByCustomer("cust123");
+
+        verify(customerRepository, times(1)).findPhoneNumbersByCustomerId("cust123");
+        assertEquals(firstPhoneNumberList, secondPhoneNumberList);
+    }
+
     /**
      * Test Scenario: Fetch all phone numbers for an invalid Customer, which does not exist
      * Expected Outcome: A 'NotFoundException' is thrown with expected error message
@@ -86,6 +177,33 @@ public class PhoneNumberServiceTest {
         assertEquals("No phone numbers linked to this customer", notFoundException.getMessage());
     }
 
+    /**
+     * Test Scenario: Fetch the phone numbers of a customer, then activate an unknown phone number
+     * Expected Outcome: Each call is timed with its outcome, and the customer lookup issues a single statement
+     */
+    @Test
+    void serviceCalls_shouldRecord_latencyOutcomeAndStatements() {
+        phoneNumberService.getAllPhoneNumbersByCustomer("cust123");
+        clearCaches();
+        DistributionSummary customerStatements = meterRegistry.get("phone.number.service.statements")
+                .tag("method", "getAllPhoneNumbersByCustomer")
+                .summary();
+        long customerCalls = customerStatements.count();
+        double customerStatementTotal = customerStatements.totalAmount();
+
+        phoneNumberService.getAllPhoneNumbersByCustomer("cust123");
+        assertThatThrownBy(() -> phoneNumberService.activatePhoneNumber("000000000"))
+                .isInstanceOf(NotFoundException.class);
+
+        assertEquals(customerCalls + 1, customerStatements.count());
+        assertEquals(customerStatementTotal + 1, customerStatements.totalAmount());
+        assertTrue(meterRegistry.get("phone.number.service")
+                .tag("method", "activatePhoneNumber")
+                .tag("outcome", "not-found")
+                .timer()
+                .count() > 0);
+    }
+
     /**
      * Test Scenario: Activate the provided valid phone number
      * Expected Outcome: Should activate the given phone number and return the entity after successful activation
@@ -102,6 +220,52 @@ public class PhoneNumberServiceTest {
         assertEquals(true, phoneNumberResponseDto.isActive());
     }
 
+    /**
+     * Test Scenario: Activate a stored phone number given with separators
+     * Expected Outcome: The canonical phone number is found and activated
+     */
+    @Test
+    void activatePhoneNumber_formattedNumber_shouldActivate_canonicalNumber() {
+        jdbcTemplate.update("INSERT INTO phone_number (id, customer_id, number, is_active) "
+                + "VALUES (RANDOM_UUID(), 'cust456', '+61412345670', FALSE)");
+        try {
+            PhoneNumberResponseDto phoneNumberResponseDto =
+                    phoneNumberService.activatePhoneNumber("+61 412-345-670");
+
+            assertEquals("+61412345670", phoneNumberResponseDto.getPhoneNumber());
+            assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                    "SELECT is_active FROM phone_number WHERE number = '+61412345670'", Boolean.class));
+        } finally {
+            jdbcTemplate.update("DELETE FROM phone_number WHERE number = '+61412345670'");
+        }
+    }
+
+    /**
+     * Test Scenario: Activate a phone number, then try to activate it again
+     * Expected Outcome: Only the committed activation changes the version of all phone numbers,
+     * and the version of the customer list is left unchanged
+     */
+    @Test
+    void activatePhoneNumber_committedActivation_shouldChange_phoneNumbersVersion() {
+        jdbcTemplate.update("INSERT INTO phone_number (id, customer_id, number, is_active) "
+                + "VALUES (RANDOM_UUID(), 'cust456', '4445556671', FALSE)");
+        try {
+            String phoneNumbersVersion = phoneNumberService.getPhoneNumbersVersion();
+            String customerVersion = phoneNumberService.getCustomerPhoneNumbersVersion("cust456");
+
+            phoneNumberService.activatePhoneNumber("4445556671");
+            String activatedVersion = phoneNumberService.getPhoneNumbersVersion();
+            assertThatThrownBy(() -> phoneNumberService.activatePhoneNumber("4445556671"))
+                    .isInstanceOf(IllegalStateException.class);
+
+            assertNotEquals(phoneNumbersVersion, activatedVersion);
+            assertEquals(activatedVersion, phoneNumberService.getPhoneNumbersVersion());
+            assertEquals(customerVersion, phoneNumberService.getCustomerPhoneNumbersVersion("cust456"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM phone_number WHERE number = '4445556671'");
+        }
+    }
+
     /**
      * Test Scenario: Activate the provided phone number, which does not exist
      * Expected Outcome: A 'NotFoundException' is thrown with expected error message
@@ -124,4 +288,70 @@ public class PhoneNumberServiceTest {
                 .hasMessageContaining("Phone number is already activated");
     }
 
+    /**
+     * Test Scenario: Activate the same inactive phone number from many threads at once
+     * Expected Outcome: Exactly one activation succeeds and every other one gets an 'IllegalStateException'
+     */
+    @Test
+    void activatePhoneNumber_concurrentRequests_shouldActivateExactlyOnce() throws Exception {
+        String phoneNumber = "4445556667";
+        int threads = 16;
+        jdbcTemplate.update("INSERT INTO phone_number (id, customer_id, number, is_active) "
+                + "VALUES (RANDOM_UUID(), 'cust456', ?, FALSE)", phoneNumber);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger activated = new AtomicInteger();
+        AtomicInteger alreadyActivated = new AtomicInteger();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        phoneNumberService.activatePhoneNumber(phoneNumber);
+                        activated.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        alreadyActivated.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("DELETE FROM phone_number WHERE number = ?", phoneNumber);
+        }
+
+        assertEquals(1, activated.get());
+        assertEquals(threads - 1, alreadyActivated.get());
+    }
+
+    /**
+     * Test Scenario: Activate a batch with an inactive, an active, an unknown and a duplicated phone number
+     * Expected Outcome: Each distinct phone number is reported once, with its own activation status
+     */
+    @Test
+    void activatePhoneNumbers_mixedBatch_shouldReturn_statusPerNumber() {
+        jdbcTemplate.update("INSERT INTO phone_number (id, customer_id, number, is_active) "
+                + "VALUES (RANDOM_UUID(), 'cust456', '4445556668', FALSE), (RANDOM_UUID(), 'cust456', '4445556669', TRUE)");
+        try {
+            BatchActivationResponseDto response = phoneNumberService.activatePhoneNumbers(
+                    List.of("4445556668", "4445556669", "0000000000", "4445556668"));
+
+            assertEquals(
+                    List.of("4445556668=ACTIVATED", "4445556669=ALREADY_ACTIVE", "0000000000=NOT_FOUND"),
+                    response.getResults().stream()
+                            .map(result -> result.getPhoneNumber() + "=" + result.getStatus())
+                            .toList());
+            assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                    "SELECT is_active FROM phone_number WHERE number = '4445556668'", Boolean.class));
+        } finally {
+            jdbcTemplate.update("DELETE FROM phone_number WHERE number IN ('4445556668', '4445556669')");
+        }
+    }
+
 }
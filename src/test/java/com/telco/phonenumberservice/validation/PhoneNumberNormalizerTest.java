@@ -0,0 +1,65 @@
+package com.telco.phonenumberservice.validation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhoneNumberNormalizerTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "+61412345678|+61412345678",
+            "+61 412 345 678|+61412345678",
+            "+61-412-345-678|+61412345678",
+            "+61.412.345.678|+61412345678",
+            "1234567890|1234567890",
+            "12|12",
+            "+999999999999999|+999999999999999"
+    })
+    void normalize_validNumber_shouldReturnCanonicalForm(String phoneNumber, String expected) {
+        assertTrue(PhoneNumberNormalizer.isValid(phoneNumber));
+        assertEquals(expected, PhoneNumberNormalizer.normalize(phoneNumber));
+    }
+
+    @Test
+    void normalize_canonicalNumber_shouldReturnSameInstance() {
+        String phoneNumber = "+61412345678";
+
+        assertSame(phoneNumber, PhoneNumberNormalizer.normalize(phoneNumber));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "+",
+            "0",
+            "+1",
+            "1234_5678",
+            "123abc456def789",
+            "%^&*()$#@",
+            " 1234567890",
+            "1234567890 ",
+            "-1234567890",
+            "+ 61412345678",
+            "61  412345678",
+            "61 -412345678",
+            "++61412345678",
+            "61+412345678",
+            "(02)9876.5432",
+            "1234567890123456",
+            "1111111111111111111a"
+    })
+    void normalize_invalidNumber_shouldReturnNull(String phoneNumber) {
+        assertFalse(PhoneNumberNormalizer.isValid(phoneNumber));
+        assertNull(PhoneNumberNormalizer.normalize(phoneNumber));
+    }
+
+    @Test
+    void normalize_null_shouldReturnNull() {
+        assertFalse(PhoneNumberNormalizer.isValid(null));
+        assertNull(PhoneNumberNormalizer.normalize(null));
+    }
+}
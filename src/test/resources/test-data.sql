@@ -14,6 +14,9 @@ CREATE TABLE IF NOT EXISTS phone_number (
     FOREIGN KEY (customer_id) REFERENCES customer(customer_id)
 );
 
+CREATE UNIQUE INDEX ux_phone_number_number ON phone_number (number);
+CREATE INDEX ix_phone_number_customer_number_active ON phone_number (customer_id, number, is_active);
+
 INSERT INTO customer (customer_id, name)
 VALUES ('cust123', 'Naruto'),
     ('cust456', 'Nupur S'),